@@ -1,3 +1,5 @@
+import java.util.Comparator;
+
 public class BasicSorting {
     public static <E extends Comparable<E>> void selectionSort(E[] a) {
         int n = a.length;
@@ -14,6 +16,53 @@ public class BasicSorting {
         }
     }
 
+    // Primitive overloads: the same algorithms without boxing or compareTo calls.
+    // Doubles are ordered as by Double.compare, so -0.0 < 0.0 and NaN sorts last.
+    public static void selectionSort(int[] a) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            int min = i;
+            for (int j = i + 1; j < n; j++) {
+                if (a[j] < a[min]) {
+                    min = j;
+                }
+            }
+            int temp = a[i];
+            a[i] = a[min];
+            a[min] = temp;
+        }
+    }
+
+    public static void selectionSort(long[] a) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            int min = i;
+            for (int j = i + 1; j < n; j++) {
+                if (a[j] < a[min]) {
+                    min = j;
+                }
+            }
+            long temp = a[i];
+            a[i] = a[min];
+            a[min] = temp;
+        }
+    }
+
+    public static void selectionSort(double[] a) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            int min = i;
+            for (int j = i + 1; j < n; j++) {
+                if (Double.compare(a[j], a[min]) < 0) {
+                    min = j;
+                }
+            }
+            double temp = a[i];
+            a[i] = a[min];
+            a[min] = temp;
+        }
+    }
+
     public static <E extends Comparable<E>> void insertionSort(E[] a) {
         int n = a.length;
         for (int i = 0; i < n; i++) {
@@ -29,19 +78,150 @@ public class BasicSorting {
         }
     }
 
+    public static void insertionSort(int[] a) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j > 0; j--) {
+                if (a[j] < a[j - 1]) {
+                    int temp = a[j];
+                    a[j] = a[j - 1];
+                    a[j - 1] = temp;
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
+    public static void insertionSort(long[] a) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j > 0; j--) {
+                if (a[j] < a[j - 1]) {
+                    long temp = a[j];
+                    a[j] = a[j - 1];
+                    a[j - 1] = temp;
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
+    public static void insertionSort(double[] a) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j > 0; j--) {
+                if (Double.compare(a[j], a[j - 1]) < 0) {
+                    double temp = a[j];
+                    a[j] = a[j - 1];
+                    a[j - 1] = temp;
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
     public static <E extends Comparable<E>> void insertionSortAlternative(E[] a) {
         int n = a.length;
         for (int i = 1; i < n; i++) {
             E current = a[i];
             int j = i - 1;
 
-            while (j > 0 && current.compareTo(a[j]) < 0) {
+            while (j >= 0 && current.compareTo(a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+
+    }
+
+    public static void insertionSortAlternative(int[] a) {
+        int n = a.length;
+        for (int i = 1; i < n; i++) {
+            int current = a[i];
+            int j = i - 1;
+
+            while (j >= 0 && current < a[j]) {
                 a[j + 1] = a[j];
                 j--;
             }
-            a[j] = current;
+            a[j + 1] = current;
         }
+    }
+
+    public static void insertionSortAlternative(long[] a) {
+        int n = a.length;
+        for (int i = 1; i < n; i++) {
+            long current = a[i];
+            int j = i - 1;
+
+            while (j >= 0 && current < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    public static void insertionSortAlternative(double[] a) {
+        int n = a.length;
+        for (int i = 1; i < n; i++) {
+            double current = a[i];
+            int j = i - 1;
+
+            while (j >= 0 && Double.compare(current, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
 
+    // Comparator overloads: the same algorithms, ordered by the given comparator.
+    public static <E> void selectionSort(E[] a, Comparator<? super E> c) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            int min = i;
+            for (int j = i + 1; j < n; j++) {
+                if (c.compare(a[j], a[min]) < 0) {
+                    min = j;
+                }
+            }
+            E temp = a[i];
+            a[i] = a[min];
+            a[min] = temp;
+        }
+    }
+
+    public static <E> void insertionSort(E[] a, Comparator<? super E> c) {
+        int n = a.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j > 0; j--) {
+                if (c.compare(a[j], a[j - 1]) < 0) {
+                    E temp = a[j];
+                    a[j] = a[j - 1];
+                    a[j - 1] = temp;
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+
+    public static <E> void insertionSortAlternative(E[] a, Comparator<? super E> c) {
+        int n = a.length;
+        for (int i = 1; i < n; i++) {
+            E current = a[i];
+            int j = i - 1;
+            while (j >= 0 && c.compare(current, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
     }
 
     public static <E extends Comparable<E>> void printArray(E[] a) {
@@ -61,5 +241,11 @@ public class BasicSorting {
         printArray(array2);
         insertionSort(array2);
         printArray(array2);
+        Employee[] employees = { new Employee(5, "Yash", 22, 1000), new Employee(8, "Tharun", 24, 25000),
+                new Employee(3, "Yush", 18, 10000) };
+        insertionSortAlternative(employees, Employee.nameComparator);
+        printArray(employees);
+        selectionSort(employees, Employee.idComparator);
+        printArray(employees);
     }
 }
\ No newline at end of file
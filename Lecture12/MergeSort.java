@@ -1,5 +1,21 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
 public class MergeSort {
 
+	// parallelSort sorts and merges ranges of at most this many elements sequentially
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 13;
+
+	// mergeSortOptimized sorts ranges of at most this many elements with insertion sort
+	private static final int INSERTION_SORT_CUTOFF = 7;
+
 	@SuppressWarnings("unchecked")
 	public static <E extends Comparable<E>> void mergeSort(E[] a) {
 		E[] aux = (E[]) new Comparable[a.length];
@@ -33,6 +49,647 @@ public class MergeSort {
 		}
 	}
 
+	// Primitive overloads: the same algorithm without boxing or compareTo calls.
+	// Doubles are ordered as by Double.compare, so -0.0 < 0.0 and NaN sorts last.
+	public static void mergeSort(int[] a) {
+		mergeSort(a, new int[a.length]);
+	}
+
+	// aux is scratch space of at least a.length elements, so that repeated sorts can reuse it
+	public static void mergeSort(int[] a, int[] aux) {
+		if (aux.length < a.length) {
+			throw new IllegalArgumentException("Scratch buffer too small: " + aux.length + " < " + a.length);
+		}
+		mergeSort(a, aux, 0, a.length - 1);
+	}
+
+	private static void mergeSort(int[] a, int[] aux, int lo, int hi) {
+		if (hi <= lo){
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(a, aux, lo, mid);
+		mergeSort(a, aux, mid+1, hi);
+		merge(a, aux, lo, mid, hi);
+	}
+
+	private static void merge(int[] a, int[] aux, int lo, int mid, int hi) {
+		for (int k = lo; k <= hi; k++){
+			aux[k] = a[k];
+		}
+		int i = lo, j = mid + 1;
+		for (int k = lo; k <= hi; k++) {
+			if (i > mid) {
+				a[k] = aux[j++];
+			} else if (j > hi) {
+				a[k] = aux[i++];
+			} else if (aux[j] < aux[i]) {
+				a[k] = aux[j++];
+			} else {
+				a[k] = aux[i++];
+			}
+		}
+	}
+
+	public static void mergeSort(long[] a) {
+		mergeSort(a, new long[a.length]);
+	}
+
+	// aux is scratch space of at least a.length elements, so that repeated sorts can reuse it
+	public static void mergeSort(long[] a, long[] aux) {
+		if (aux.length < a.length) {
+			throw new IllegalArgumentException("Scratch buffer too small: " + aux.length + " < " + a.length);
+		}
+		mergeSort(a, aux, 0, a.length - 1);
+	}
+
+	private static void mergeSort(long[] a, long[] aux, int lo, int hi) {
+		if (hi <= lo){
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(a, aux, lo, mid);
+		mergeSort(a, aux, mid+1, hi);
+		merge(a, aux, lo, mid, hi);
+	}
+
+	private static void merge(long[] a, long[] aux, int lo, int mid, int hi) {
+		for (int k = lo; k <= hi; k++){
+			aux[k] = a[k];
+		}
+		int i = lo, j = mid + 1;
+		for (int k = lo; k <= hi; k++) {
+			if (i > mid) {
+				a[k] = aux[j++];
+			} else if (j > hi) {
+				a[k] = aux[i++];
+			} else if (aux[j] < aux[i]) {
+				a[k] = aux[j++];
+			} else {
+				a[k] = aux[i++];
+			}
+		}
+	}
+
+	public static void mergeSort(double[] a) {
+		mergeSort(a, new double[a.length]);
+	}
+
+	// aux is scratch space of at least a.length elements, so that repeated sorts can reuse it
+	public static void mergeSort(double[] a, double[] aux) {
+		if (aux.length < a.length) {
+			throw new IllegalArgumentException("Scratch buffer too small: " + aux.length + " < " + a.length);
+		}
+		mergeSort(a, aux, 0, a.length - 1);
+	}
+
+	private static void mergeSort(double[] a, double[] aux, int lo, int hi) {
+		if (hi <= lo){
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(a, aux, lo, mid);
+		mergeSort(a, aux, mid+1, hi);
+		merge(a, aux, lo, mid, hi);
+	}
+
+	private static void merge(double[] a, double[] aux, int lo, int mid, int hi) {
+		for (int k = lo; k <= hi; k++){
+			aux[k] = a[k];
+		}
+		int i = lo, j = mid + 1;
+		for (int k = lo; k <= hi; k++) {
+			if (i > mid) {
+				a[k] = aux[j++];
+			} else if (j > hi) {
+				a[k] = aux[i++];
+			} else if (Double.compare(aux[j], aux[i]) < 0) {
+				a[k] = aux[j++];
+			} else {
+				a[k] = aux[i++];
+			}
+		}
+	}
+
+	// Optimized sequential merge sort, still stable:
+	//  - ranges of at most INSERTION_SORT_CUTOFF elements are sorted by insertion sort;
+	//  - if the two sorted halves are already in order, a[mid] <= a[mid+1], the merge is skipped;
+	//  - a and aux swap roles at each level, so each merge reads from one array and
+	//    writes to the other, and nothing is copied back except once at the start.
+	public static <E extends Comparable<E>> void mergeSortOptimized(E[] a) {
+		E[] aux = a.clone();
+		mergeSortOptimized(aux, a, 0, a.length - 1);
+	}
+
+	// sorts src[lo..hi] into dst[lo..hi]; on entry the two hold the same elements there
+	private static <E extends Comparable<E>> void mergeSortOptimized(E[] src, E[] dst, int lo, int hi) {
+		if (hi - lo < INSERTION_SORT_CUTOFF) {
+			insertionSort(dst, lo, hi);
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		mergeSortOptimized(dst, src, lo, mid);
+		mergeSortOptimized(dst, src, mid+1, hi);
+		if (src[mid+1].compareTo(src[mid]) >= 0) {
+			System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+			return;
+		}
+		merge(src, dst, lo, mid, mid+1, hi, lo);
+	}
+
+	private static <E extends Comparable<E>> void insertionSort(E[] a, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			E current = a[i];
+			int j = i - 1;
+			while (j >= lo && current.compareTo(a[j]) < 0) {
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = current;
+		}
+	}
+
+	public static void mergeSortOptimized(int[] a) {
+		int[] aux = a.clone();
+		mergeSortOptimized(aux, a, 0, a.length - 1);
+	}
+
+	private static void mergeSortOptimized(int[] src, int[] dst, int lo, int hi) {
+		if (hi - lo < INSERTION_SORT_CUTOFF) {
+			insertionSort(dst, lo, hi);
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		mergeSortOptimized(dst, src, lo, mid);
+		mergeSortOptimized(dst, src, mid+1, hi);
+		if (src[mid+1] >= src[mid]) {
+			System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+			return;
+		}
+		merge(src, dst, lo, mid, mid+1, hi, lo);
+	}
+
+	private static void insertionSort(int[] a, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			int current = a[i];
+			int j = i - 1;
+			while (j >= lo && current < a[j]) {
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = current;
+		}
+	}
+
+	// Parallel fork/join merge sort. The two halves are sorted as separate tasks,
+	// and ranges of at most threshold elements are sorted with the sequential
+	// mergeSort. On the upper levels the merge is parallel too: the middle
+	// element of the longer run is placed by binary search in the shorter one,
+	// and the two sides of it are merged as separate tasks. All tasks share one
+	// aux array, each using only the slice of its own range. Stable.
+	public static <E extends Comparable<E>> void parallelSort(E[] a) {
+		parallelSort(a, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	public static <E extends Comparable<E>> void parallelSort(E[] a, int threshold) {
+		parallelSort(a, threshold, Comparator.naturalOrder());
+	}
+
+	public static <E> void parallelSort(E[] a, Comparator<? super E> c) {
+		parallelSort(a, DEFAULT_PARALLEL_THRESHOLD, c);
+	}
+
+	// the tasks of the generic parallelSort compare with a Comparator, the natural order for Comparable arrays
+	@SuppressWarnings("unchecked")
+	public static <E> void parallelSort(E[] a, int threshold, Comparator<? super E> c) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+		}
+		E[] aux = (E[]) new Object[a.length];
+		new SortTask<E>(a, aux, 0, a.length - 1, threshold, c).invoke();
+	}
+
+	public static void parallelSort(int[] a) {
+		parallelSort(a, DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	public static void parallelSort(int[] a, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+		}
+		new IntSortTask(a, new int[a.length], 0, a.length - 1, threshold).invoke();
+	}
+
+	// sorts a[lo..hi]
+	private static class SortTask<E> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final E[] a, aux;
+		private final int lo, hi, threshold;
+		private final Comparator<? super E> c;
+
+		SortTask(E[] a, E[] aux, int lo, int hi, int threshold, Comparator<? super E> c) {
+			this.a = a;
+			this.aux = aux;
+			this.lo = lo;
+			this.hi = hi;
+			this.threshold = threshold;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo < threshold) {
+				mergeSort(a, aux, lo, hi, c);
+				return;
+			}
+			int mid = lo + (hi - lo) / 2;
+			ForkJoinTask.invokeAll(new SortTask<E>(a, aux, lo, mid, threshold, c),
+					new SortTask<E>(a, aux, mid+1, hi, threshold, c));
+			new CopyTask(a, aux, lo, hi + 1, threshold).invoke();
+			new MergeTask<E>(aux, a, lo, mid, mid+1, hi, lo, threshold, c).invoke();
+		}
+	}
+
+	// merges the sorted runs from[lo1..hi1] and from[lo2..hi2] into to[k..]
+	private static class MergeTask<E> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final E[] from, to;
+		private final int lo1, hi1, lo2, hi2, k, threshold;
+		private final Comparator<? super E> c;
+
+		MergeTask(E[] from, E[] to, int lo1, int hi1, int lo2, int hi2, int k, int threshold, Comparator<? super E> c) {
+			this.from = from;
+			this.to = to;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.k = k;
+			this.threshold = threshold;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			int n1 = hi1 - lo1 + 1, n2 = hi2 - lo2 + 1;
+			if (n1 + n2 <= threshold) {
+				merge(from, to, lo1, hi1, lo2, hi2, k, c);
+				return;
+			}
+			int p, q;
+			if (n1 >= n2) {
+				// left elements equal to from[p] stay before it, right ones go after it
+				p = lo1 + (hi1 - lo1) / 2;
+				q = lowerBound(from, lo2, hi2 + 1, from[p], c);
+				to[k + (p - lo1) + (q - lo2)] = from[p];
+				ForkJoinTask.invokeAll(new MergeTask<E>(from, to, lo1, p-1, lo2, q-1, k, threshold, c),
+						new MergeTask<E>(from, to, p+1, hi1, q, hi2, k + (p - lo1) + (q - lo2) + 1, threshold, c));
+			} else {
+				// left elements equal to from[q] go before it
+				q = lo2 + (hi2 - lo2) / 2;
+				p = upperBound(from, lo1, hi1 + 1, from[q], c);
+				to[k + (p - lo1) + (q - lo2)] = from[q];
+				ForkJoinTask.invokeAll(new MergeTask<E>(from, to, lo1, p-1, lo2, q-1, k, threshold, c),
+						new MergeTask<E>(from, to, p, hi1, q+1, hi2, k + (p - lo1) + (q - lo2) + 1, threshold, c));
+			}
+		}
+	}
+
+	// sequential merge of from[lo1..hi1] and from[lo2..hi2] into to[k..]; either run may be empty
+	private static <E extends Comparable<E>> void merge(E[] from, E[] to, int lo1, int hi1, int lo2, int hi2, int k) {
+		int i = lo1, j = lo2;
+		while (i <= hi1 && j <= hi2) {
+			if (from[j].compareTo(from[i]) < 0) {
+				to[k++] = from[j++];
+			} else {
+				to[k++] = from[i++];
+			}
+		}
+		while (i <= hi1) {
+			to[k++] = from[i++];
+		}
+		while (j <= hi2) {
+			to[k++] = from[j++];
+		}
+	}
+
+	private static <E> void merge(E[] from, E[] to, int lo1, int hi1, int lo2, int hi2, int k, Comparator<? super E> c) {
+		int i = lo1, j = lo2;
+		while (i <= hi1 && j <= hi2) {
+			if (c.compare(from[j], from[i]) < 0) {
+				to[k++] = from[j++];
+			} else {
+				to[k++] = from[i++];
+			}
+		}
+		while (i <= hi1) {
+			to[k++] = from[i++];
+		}
+		while (j <= hi2) {
+			to[k++] = from[j++];
+		}
+	}
+
+	// first index in a[lo..hi-1] with a[index] >= key, or hi if there is none
+	private static <E> int lowerBound(E[] a, int lo, int hi, E key, Comparator<? super E> c) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (c.compare(a[mid], key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	// first index in a[lo..hi-1] with a[index] > key, or hi if there is none
+	private static <E> int upperBound(E[] a, int lo, int hi, E key, Comparator<? super E> c) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (c.compare(a[mid], key) <= 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	// sorts a[lo..hi]
+	private static class IntSortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] a, aux;
+		private final int lo, hi, threshold;
+
+		IntSortTask(int[] a, int[] aux, int lo, int hi, int threshold) {
+			this.a = a;
+			this.aux = aux;
+			this.lo = lo;
+			this.hi = hi;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo < threshold) {
+				mergeSort(a, aux, lo, hi);
+				return;
+			}
+			int mid = lo + (hi - lo) / 2;
+			ForkJoinTask.invokeAll(new IntSortTask(a, aux, lo, mid, threshold),
+					new IntSortTask(a, aux, mid+1, hi, threshold));
+			new CopyTask(a, aux, lo, hi + 1, threshold).invoke();
+			new IntMergeTask(aux, a, lo, mid, mid+1, hi, lo, threshold).invoke();
+		}
+	}
+
+	// merges the sorted runs from[lo1..hi1] and from[lo2..hi2] into to[k..]
+	private static class IntMergeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int[] from, to;
+		private final int lo1, hi1, lo2, hi2, k, threshold;
+
+		IntMergeTask(int[] from, int[] to, int lo1, int hi1, int lo2, int hi2, int k, int threshold) {
+			this.from = from;
+			this.to = to;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.k = k;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			int n1 = hi1 - lo1 + 1, n2 = hi2 - lo2 + 1;
+			if (n1 + n2 <= threshold) {
+				merge(from, to, lo1, hi1, lo2, hi2, k);
+				return;
+			}
+			int p, q;
+			if (n1 >= n2) {
+				p = lo1 + (hi1 - lo1) / 2;
+				q = lowerBound(from, lo2, hi2 + 1, from[p]);
+				to[k + (p - lo1) + (q - lo2)] = from[p];
+				ForkJoinTask.invokeAll(new IntMergeTask(from, to, lo1, p-1, lo2, q-1, k, threshold),
+						new IntMergeTask(from, to, p+1, hi1, q, hi2, k + (p - lo1) + (q - lo2) + 1, threshold));
+			} else {
+				q = lo2 + (hi2 - lo2) / 2;
+				p = upperBound(from, lo1, hi1 + 1, from[q]);
+				to[k + (p - lo1) + (q - lo2)] = from[q];
+				ForkJoinTask.invokeAll(new IntMergeTask(from, to, lo1, p-1, lo2, q-1, k, threshold),
+						new IntMergeTask(from, to, p, hi1, q+1, hi2, k + (p - lo1) + (q - lo2) + 1, threshold));
+			}
+		}
+	}
+
+	private static void merge(int[] from, int[] to, int lo1, int hi1, int lo2, int hi2, int k) {
+		int i = lo1, j = lo2;
+		while (i <= hi1 && j <= hi2) {
+			if (from[j] < from[i]) {
+				to[k++] = from[j++];
+			} else {
+				to[k++] = from[i++];
+			}
+		}
+		while (i <= hi1) {
+			to[k++] = from[i++];
+		}
+		while (j <= hi2) {
+			to[k++] = from[j++];
+		}
+	}
+
+	private static int lowerBound(int[] a, int lo, int hi, int key) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (a[mid] < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private static int upperBound(int[] a, int lo, int hi, int key) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (a[mid] <= key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	// copies src[lo..hi-1] to dst[lo..hi-1] in parallel; src and dst are arrays of the same type
+	private static class CopyTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Object src, dst;
+		private final int lo, hi, threshold;
+
+		CopyTask(Object src, Object dst, int lo, int hi, int threshold) {
+			this.src = src;
+			this.dst = dst;
+			this.lo = lo;
+			this.hi = hi;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= threshold) {
+				System.arraycopy(src, lo, dst, lo, hi - lo);
+				return;
+			}
+			int mid = (lo + hi) >>> 1;
+			ForkJoinTask.invokeAll(new CopyTask(src, dst, lo, mid, threshold), new CopyTask(src, dst, mid, hi, threshold));
+		}
+	}
+
+	// Comparator overloads of mergeSort and mergeSortOptimized: the same algorithms, ordered
+	// by the given comparator, and just as stable.
+	@SuppressWarnings("unchecked")
+	public static <E> void mergeSort(E[] a, Comparator<? super E> c) {
+		E[] aux = (E[]) new Object[a.length];
+		mergeSort(a, aux, 0, a.length - 1, c);
+	}
+
+	private static <E> void mergeSort(E[] a, E[] aux, int lo, int hi, Comparator<? super E> c) {
+		if (hi <= lo) {
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		mergeSort(a, aux, lo, mid, c);
+		mergeSort(a, aux, mid+1, hi, c);
+		merge(a, aux, lo, mid, hi, c);
+	}
+
+	private static <E> void merge(E[] a, E[] aux, int lo, int mid, int hi, Comparator<? super E> c) {
+		for (int k = lo; k <= hi; k++) {
+			aux[k] = a[k];
+		}
+		int i = lo, j = mid + 1;
+		for (int k = lo; k <= hi; k++) {
+			if (i > mid) {
+				a[k] = aux[j++];
+			} else if (j > hi) {
+				a[k] = aux[i++];
+			} else if (c.compare(aux[j], aux[i]) < 0) {
+				a[k] = aux[j++];
+			} else {
+				a[k] = aux[i++];
+			}
+		}
+	}
+
+	public static <E> void mergeSortOptimized(E[] a, Comparator<? super E> c) {
+		E[] aux = a.clone();
+		mergeSortOptimized(aux, a, 0, a.length - 1, c);
+	}
+
+	private static <E> void mergeSortOptimized(E[] src, E[] dst, int lo, int hi, Comparator<? super E> c) {
+		if (hi - lo < INSERTION_SORT_CUTOFF) {
+			insertionSort(dst, lo, hi, c);
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		mergeSortOptimized(dst, src, lo, mid, c);
+		mergeSortOptimized(dst, src, mid+1, hi, c);
+		if (c.compare(src[mid+1], src[mid]) >= 0) {
+			System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+			return;
+		}
+		merge(src, dst, lo, mid, mid+1, hi, lo, c);
+	}
+
+	private static <E> void insertionSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+		for (int i = lo + 1; i <= hi; i++) {
+			E current = a[i];
+			int j = i - 1;
+			while (j >= lo && c.compare(current, a[j]) < 0) {
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = current;
+		}
+	}
+
+	// Sorting by an extracted key (the Schwartzian transform): the key of each element is
+	// computed once into an array, the indices 0..n-1 are merge sorted by their keys, and
+	// the elements are then moved to their sorted positions. A comparator that calls an
+	// expensive getter runs it twice per comparison, about 2 n lg n times; this runs it n
+	// times. Stable, like mergeSort. The int and long versions are named apart, as in
+	// Comparator.comparingInt, so that a lambda such as e -> e.getId() is not ambiguous.
+	public static <E> void sortByIntKey(E[] a, ToIntFunction<? super E> key) {
+		int[] keys = new int[a.length];
+		for (int i = 0; i < a.length; i++) {
+			keys[i] = key.applyAsInt(a[i]);
+		}
+		sortByIndex(a, (i, j) -> Integer.compare(keys[i], keys[j]));
+	}
+
+	public static <E> void sortByLongKey(E[] a, ToLongFunction<? super E> key) {
+		long[] keys = new long[a.length];
+		for (int i = 0; i < a.length; i++) {
+			keys[i] = key.applyAsLong(a[i]);
+		}
+		sortByIndex(a, (i, j) -> Long.compare(keys[i], keys[j]));
+	}
+
+	public static <E, K extends Comparable<? super K>> void sortByKey(E[] a, Function<? super E, ? extends K> key) {
+		List<K> keys = new ArrayList<K>(a.length);
+		for (E item : a) {
+			keys.add(key.apply(item));
+		}
+		sortByIndex(a, (i, j) -> keys.get(i).compareTo(keys.get(j)));
+	}
+
+	// sorts a by the order of the indices of its elements under cmp
+	private static <E> void sortByIndex(E[] a, IntBinaryOperator cmp) {
+		int n = a.length;
+		int[] index = new int[n];
+		for (int i = 0; i < n; i++) {
+			index[i] = i;
+		}
+		sortIndex(index, new int[n], 0, n - 1, cmp);
+		E[] copy = a.clone();
+		for (int i = 0; i < n; i++) {
+			a[i] = copy[index[i]];
+		}
+	}
+
+	private static void sortIndex(int[] index, int[] aux, int lo, int hi, IntBinaryOperator cmp) {
+		if (hi <= lo) {
+			return;
+		}
+		int mid = lo + (hi - lo) / 2;
+		sortIndex(index, aux, lo, mid, cmp);
+		sortIndex(index, aux, mid+1, hi, cmp);
+		if (cmp.applyAsInt(index[mid+1], index[mid]) >= 0) {
+			return;
+		}
+		for (int k = lo; k <= hi; k++) {
+			aux[k] = index[k];
+		}
+		int i = lo, j = mid + 1;
+		for (int k = lo; k <= hi; k++) {
+			if (i > mid) {
+				index[k] = aux[j++];
+			} else if (j > hi) {
+				index[k] = aux[i++];
+			} else if (cmp.applyAsInt(aux[j], aux[i]) < 0) {
+				index[k] = aux[j++];
+			} else {
+				index[k] = aux[i++];
+			}
+		}
+	}
+
 	public static <E extends Comparable<E>> void printArray(E[] a) {
 		for (E item : a) {
 			System.out.print(item + " ");
@@ -46,5 +703,16 @@ public class MergeSort {
 		printArray(array1);
 		mergeSort(array1);
 		printArray(array1);
+		String[] array2 = { "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E" };
+		parallelSort(array2, 2);
+		printArray(array2);
+		String[] array3 = { "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E" };
+		mergeSortOptimized(array3);
+		printArray(array3);
+		String[] words = { "merge", "sort", "by", "key", "length", "is", "stable" };
+		sortByIntKey(words, String::length);
+		printArray(words);
+		mergeSort(words, Comparator.reverseOrder());
+		printArray(words);
 	}
 }
\ No newline at end of file
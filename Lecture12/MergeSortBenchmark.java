@@ -0,0 +1,177 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+// Compares mergeSort with mergeSortOptimized on random, sorted and partially
+// sorted input, for Integer[] and int[] arrays. Each time is the median of
+// several runs after a few warmup runs.
+//
+//   java MergeSortBenchmark [n] [trials]
+//
+// The first argument may instead name a file of integers, in text or in the
+// binary format of Lecture5's IntBinaryFile; then the benchmark sorts its
+// contents only:
+//
+//   java MergeSortBenchmark 1Mints.bin [trials]
+//
+//   n = 1000000, median of 5 runs, in ms
+//   input              type       mergeSort  optimized  speedup
+//   random             Integer[]      355.6      334.1     1.1x
+//   random             int[]          181.4      156.4     1.2x
+//   sorted             Integer[]      119.5       15.9     7.5x
+//   sorted             int[]           49.5        6.3     7.9x
+//   partially sorted   Integer[]      153.5      109.7     1.4x
+//   partially sorted   int[]           52.6       35.7     1.5x
+public class MergeSortBenchmark {
+
+	private static final long SEED = 12;
+	private static final int WARMUP = 3;
+
+	// n random ints
+	private static int[] random(int n) {
+		Random random = new Random(SEED);
+		int[] a = new int[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = random.nextInt();
+		}
+		return a;
+	}
+
+	// n ints in ascending order
+	private static int[] sorted(int n) {
+		int[] a = random(n);
+		Arrays.sort(a);
+		return a;
+	}
+
+	// n ints in ascending order, except that 1% of them have been swapped with random positions
+	private static int[] partiallySorted(int n) {
+		int[] a = sorted(n);
+		Random random = new Random(SEED + 1);
+		for (int s = 0; s < n / 100; s++) {
+			int i = random.nextInt(n), j = random.nextInt(n);
+			int temp = a[i];
+			a[i] = a[j];
+			a[j] = temp;
+		}
+		return a;
+	}
+
+	// the ints in the file, which is either whitespace-separated text or starts with the
+	// "INTS" header of Lecture5's IntBinaryFile: the count at offset 8 and the values,
+	// little-endian, from offset 32; the checksum is not verified
+	private static int[] readInts(String file) {
+		byte[] bytes;
+		try {
+			bytes = Files.readAllBytes(Paths.get(file));
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Could not open " + file, e);
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+		if (bytes.length >= 32 && new String(bytes, 0, 4, StandardCharsets.US_ASCII).equals("INTS")) {
+			long count = buffer.getLong(8);
+			if (count < 0 || count > (bytes.length - 32) / 4) {
+				throw new IllegalArgumentException(file + " is truncated or has a corrupt header");
+			}
+			IntBuffer values = buffer.position(32).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			int[] a = new int[(int) count];
+			values.get(a);
+			return a;
+		}
+		String text = new String(bytes, StandardCharsets.US_ASCII).trim();
+		if (text.isEmpty()) {
+			return new int[0];
+		}
+		String[] tokens = text.split("\\s+");
+		int[] a = new int[tokens.length];
+		for (int i = 0; i < tokens.length; i++) {
+			a[i] = Integer.parseInt(tokens[i]);
+		}
+		return a;
+	}
+
+	private static Integer[] box(int[] a) {
+		Integer[] boxed = new Integer[a.length];
+		for (int i = 0; i < a.length; i++) {
+			boxed[i] = a[i];
+		}
+		return boxed;
+	}
+
+	// median time in milliseconds of sorting copies of a
+	private static double time(int[] a, boolean optimized, int trials) {
+		double[] times = new double[trials];
+		for (int t = -WARMUP; t < trials; t++) {
+			int[] copy = a.clone();
+			long start = System.nanoTime();
+			if (optimized) {
+				MergeSort.mergeSortOptimized(copy);
+			} else {
+				MergeSort.mergeSort(copy);
+			}
+			if (t >= 0) {
+				times[t] = (System.nanoTime() - start) / 1e6;
+			}
+		}
+		Arrays.sort(times);
+		return times[trials / 2];
+	}
+
+	private static double time(Integer[] a, boolean optimized, int trials) {
+		double[] times = new double[trials];
+		for (int t = -WARMUP; t < trials; t++) {
+			Integer[] copy = a.clone();
+			long start = System.nanoTime();
+			if (optimized) {
+				MergeSort.mergeSortOptimized(copy);
+			} else {
+				MergeSort.mergeSort(copy);
+			}
+			if (t >= 0) {
+				times[t] = (System.nanoTime() - start) / 1e6;
+			}
+		}
+		Arrays.sort(times);
+		return times[trials / 2];
+	}
+
+	public static void main(String[] args) {
+		int n = 1000000;
+		String file = null;
+		if (args.length > 0) {
+			if (args[0].matches("\\d+")) {
+				n = Integer.parseInt(args[0]);
+			} else {
+				file = args[0];
+			}
+		}
+		int trials = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		String[] names;
+		int[][] inputs;
+		if (file == null) {
+			names = new String[] { "random", "sorted", "partially sorted" };
+			inputs = new int[][] { random(n), sorted(n), partiallySorted(n) };
+		} else {
+			names = new String[] { file };
+			inputs = new int[][] { readInts(file) };
+			n = inputs[0].length;
+		}
+
+		System.out.println("n = " + n + ", median of " + trials + " runs, in ms");
+		System.out.printf("%-18s %-9s %10s %10s %8s%n", "input", "type", "mergeSort", "optimized", "speedup");
+		for (int i = 0; i < inputs.length; i++) {
+			Integer[] boxed = box(inputs[i]);
+			double plain = time(boxed, false, trials), optimized = time(boxed, true, trials);
+			System.out.printf("%-18s %-9s %10.1f %10.1f %7.1fx%n", names[i], "Integer[]", plain, optimized, plain / optimized);
+			plain = time(inputs[i], false, trials);
+			optimized = time(inputs[i], true, trials);
+			System.out.printf("%-18s %-9s %10.1f %10.1f %7.1fx%n", names[i], "int[]", plain, optimized, plain / optimized);
+		}
+	}
+}
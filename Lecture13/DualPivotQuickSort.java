@@ -0,0 +1,456 @@
+// Yaroslavskiy's dual-pivot quicksort. Two pivots p <= q, the 2nd and 4th of five sorted
+// samples, split each range into three parts, < p, between p and q, and > q, in a single
+// scan; this takes fewer swaps than the Lomuto partition of QuickSort, which swaps every
+// element below its pivot. When the middle part is most of the range, the keys equal to a
+// pivot are moved out of it first, so inputs with few distinct keys stay fast. Ranges of
+// fewer than INSERTION_SORT_CUTOFF elements are finished by insertion sort. Only the two
+// smaller parts are sorted recursively and the largest is sorted in a loop, so the stack is
+// at most about lg n frames deep even on inputs that make the running time quadratic.
+public class DualPivotQuickSort {
+
+    private static final int INSERTION_SORT_CUTOFF = 32;
+
+    public static <E extends Comparable<E>> void dualPivotQuickSort(E[] a) {
+        dualPivotQuickSort(a, 0, a.length - 1);
+    }
+
+    private static <E extends Comparable<E>> void dualPivotQuickSort(E[] a, int lo, int hi) {
+        // recurse on the two smaller parts and loop on the largest, so the stack stays
+        // O(log n) deep: every part but the largest holds at most half of the range
+        while (hi - lo + 1 >= INSERTION_SORT_CUTOFF) {
+            int n = hi - lo + 1;
+
+            // sort five elements spread around the middle and take the 2nd and 4th as pivots
+            int seventh = (n >> 3) + (n >> 6) + 1;
+            int e3 = lo + n / 2;
+            int e2 = e3 - seventh, e1 = e2 - seventh;
+            int e4 = e3 + seventh, e5 = e4 + seventh;
+            sort5(a, e1, e2, e3, e4, e5);
+            QuickSort.swap(a, lo, e2);
+            QuickSort.swap(a, hi, e4);
+            E p = a[lo], q = a[hi];
+
+            // a[lo+1..l-1] < p <= a[l..k-1] <= q < a[g+1..hi-1]
+            int l = lo + 1, g = hi - 1;
+            for (int k = l; k <= g; k++) {
+                if (a[k].compareTo(p) < 0) {
+                    QuickSort.swap(a, k, l++);
+                } else if (a[k].compareTo(q) > 0) {
+                    while (k < g && a[g].compareTo(q) > 0) {
+                        g--;
+                    }
+                    QuickSort.swap(a, k, g--);
+                    if (a[k].compareTo(p) < 0) {
+                        QuickSort.swap(a, k, l++);
+                    }
+                }
+            }
+            QuickSort.swap(a, lo, --l);
+            QuickSort.swap(a, hi, ++g);
+
+            int m = l + 1, r = g - 1;
+            if (p.compareTo(q) == 0) {
+                // every key of the middle part equals both pivots, so it is done
+                r = m - 1;
+            } else if (l < e1 && e5 < g) {
+                // the middle part holds most of the range, so many keys may equal a pivot:
+                // move those to its ends, where they are done
+                for (int k = m; k <= r; k++) {
+                    if (a[k].compareTo(p) == 0) {
+                        QuickSort.swap(a, k, m++);
+                    } else if (a[k].compareTo(q) == 0) {
+                        while (k < r && a[r].compareTo(q) == 0) {
+                            r--;
+                        }
+                        QuickSort.swap(a, k, r--);
+                        if (a[k].compareTo(p) == 0) {
+                            QuickSort.swap(a, k, m++);
+                        }
+                    }
+                }
+            }
+
+            if (l - lo >= r - m + 1 && l - lo >= hi - g) {
+                dualPivotQuickSort(a, m, r);
+                dualPivotQuickSort(a, g + 1, hi);
+                hi = l - 1;
+            } else if (r - m + 1 >= hi - g) {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, g + 1, hi);
+                lo = m;
+                hi = r;
+            } else {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, m, r);
+                lo = g + 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    // sorts a[e1], a[e2], a[e3], a[e4], a[e5] with a sorting network of 9 compare-exchanges
+    private static <E extends Comparable<E>> void sort5(E[] a, int e1, int e2, int e3, int e4, int e5) {
+        compareExchange(a, e1, e2);
+        compareExchange(a, e4, e5);
+        compareExchange(a, e3, e5);
+        compareExchange(a, e3, e4);
+        compareExchange(a, e1, e4);
+        compareExchange(a, e1, e3);
+        compareExchange(a, e2, e5);
+        compareExchange(a, e2, e4);
+        compareExchange(a, e2, e3);
+    }
+
+    private static <E extends Comparable<E>> void compareExchange(E[] a, int i, int j) {
+        if (a[j].compareTo(a[i]) < 0) {
+            QuickSort.swap(a, i, j);
+        }
+    }
+
+    private static <E extends Comparable<E>> void insertionSort(E[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            E current = a[i];
+            int j = i - 1;
+            while (j >= lo && current.compareTo(a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    // Primitive overloads. Doubles are ordered as by Double.compare, as in QuickSort.
+    public static void dualPivotQuickSort(int[] a) {
+        dualPivotQuickSort(a, 0, a.length - 1);
+    }
+
+    private static void dualPivotQuickSort(int[] a, int lo, int hi) {
+        // recurse on the two smaller parts and loop on the largest, so the stack stays
+        // O(log n) deep: every part but the largest holds at most half of the range
+        while (hi - lo + 1 >= INSERTION_SORT_CUTOFF) {
+            int n = hi - lo + 1;
+
+            // sort five elements spread around the middle and take the 2nd and 4th as pivots
+            int seventh = (n >> 3) + (n >> 6) + 1;
+            int e3 = lo + n / 2;
+            int e2 = e3 - seventh, e1 = e2 - seventh;
+            int e4 = e3 + seventh, e5 = e4 + seventh;
+            sort5(a, e1, e2, e3, e4, e5);
+            QuickSort.swap(a, lo, e2);
+            QuickSort.swap(a, hi, e4);
+            int p = a[lo], q = a[hi];
+
+            // a[lo+1..l-1] < p <= a[l..k-1] <= q < a[g+1..hi-1]
+            int l = lo + 1, g = hi - 1;
+            for (int k = l; k <= g; k++) {
+                if (a[k] < p) {
+                    QuickSort.swap(a, k, l++);
+                } else if (a[k] > q) {
+                    while (k < g && a[g] > q) {
+                        g--;
+                    }
+                    QuickSort.swap(a, k, g--);
+                    if (a[k] < p) {
+                        QuickSort.swap(a, k, l++);
+                    }
+                }
+            }
+            QuickSort.swap(a, lo, --l);
+            QuickSort.swap(a, hi, ++g);
+
+            int m = l + 1, r = g - 1;
+            if (p == q) {
+                // every key of the middle part equals both pivots, so it is done
+                r = m - 1;
+            } else if (l < e1 && e5 < g) {
+                // the middle part holds most of the range, so many keys may equal a pivot:
+                // move those to its ends, where they are done
+                for (int k = m; k <= r; k++) {
+                    if (a[k] == p) {
+                        QuickSort.swap(a, k, m++);
+                    } else if (a[k] == q) {
+                        while (k < r && a[r] == q) {
+                            r--;
+                        }
+                        QuickSort.swap(a, k, r--);
+                        if (a[k] == p) {
+                            QuickSort.swap(a, k, m++);
+                        }
+                    }
+                }
+            }
+
+            if (l - lo >= r - m + 1 && l - lo >= hi - g) {
+                dualPivotQuickSort(a, m, r);
+                dualPivotQuickSort(a, g + 1, hi);
+                hi = l - 1;
+            } else if (r - m + 1 >= hi - g) {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, g + 1, hi);
+                lo = m;
+                hi = r;
+            } else {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, m, r);
+                lo = g + 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    // sorts a[e1], a[e2], a[e3], a[e4], a[e5] with a sorting network of 9 compare-exchanges
+    private static void sort5(int[] a, int e1, int e2, int e3, int e4, int e5) {
+        compareExchange(a, e1, e2);
+        compareExchange(a, e4, e5);
+        compareExchange(a, e3, e5);
+        compareExchange(a, e3, e4);
+        compareExchange(a, e1, e4);
+        compareExchange(a, e1, e3);
+        compareExchange(a, e2, e5);
+        compareExchange(a, e2, e4);
+        compareExchange(a, e2, e3);
+    }
+
+    private static void compareExchange(int[] a, int i, int j) {
+        if (a[j] < a[i]) {
+            QuickSort.swap(a, i, j);
+        }
+    }
+
+    private static void insertionSort(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            int current = a[i];
+            int j = i - 1;
+            while (j >= lo && current < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    public static void dualPivotQuickSort(long[] a) {
+        dualPivotQuickSort(a, 0, a.length - 1);
+    }
+
+    private static void dualPivotQuickSort(long[] a, int lo, int hi) {
+        // recurse on the two smaller parts and loop on the largest, so the stack stays
+        // O(log n) deep: every part but the largest holds at most half of the range
+        while (hi - lo + 1 >= INSERTION_SORT_CUTOFF) {
+            int n = hi - lo + 1;
+
+            // sort five elements spread around the middle and take the 2nd and 4th as pivots
+            int seventh = (n >> 3) + (n >> 6) + 1;
+            int e3 = lo + n / 2;
+            int e2 = e3 - seventh, e1 = e2 - seventh;
+            int e4 = e3 + seventh, e5 = e4 + seventh;
+            sort5(a, e1, e2, e3, e4, e5);
+            QuickSort.swap(a, lo, e2);
+            QuickSort.swap(a, hi, e4);
+            long p = a[lo], q = a[hi];
+
+            // a[lo+1..l-1] < p <= a[l..k-1] <= q < a[g+1..hi-1]
+            int l = lo + 1, g = hi - 1;
+            for (int k = l; k <= g; k++) {
+                if (a[k] < p) {
+                    QuickSort.swap(a, k, l++);
+                } else if (a[k] > q) {
+                    while (k < g && a[g] > q) {
+                        g--;
+                    }
+                    QuickSort.swap(a, k, g--);
+                    if (a[k] < p) {
+                        QuickSort.swap(a, k, l++);
+                    }
+                }
+            }
+            QuickSort.swap(a, lo, --l);
+            QuickSort.swap(a, hi, ++g);
+
+            int m = l + 1, r = g - 1;
+            if (p == q) {
+                // every key of the middle part equals both pivots, so it is done
+                r = m - 1;
+            } else if (l < e1 && e5 < g) {
+                // the middle part holds most of the range, so many keys may equal a pivot:
+                // move those to its ends, where they are done
+                for (int k = m; k <= r; k++) {
+                    if (a[k] == p) {
+                        QuickSort.swap(a, k, m++);
+                    } else if (a[k] == q) {
+                        while (k < r && a[r] == q) {
+                            r--;
+                        }
+                        QuickSort.swap(a, k, r--);
+                        if (a[k] == p) {
+                            QuickSort.swap(a, k, m++);
+                        }
+                    }
+                }
+            }
+
+            if (l - lo >= r - m + 1 && l - lo >= hi - g) {
+                dualPivotQuickSort(a, m, r);
+                dualPivotQuickSort(a, g + 1, hi);
+                hi = l - 1;
+            } else if (r - m + 1 >= hi - g) {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, g + 1, hi);
+                lo = m;
+                hi = r;
+            } else {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, m, r);
+                lo = g + 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    // sorts a[e1], a[e2], a[e3], a[e4], a[e5] with a sorting network of 9 compare-exchanges
+    private static void sort5(long[] a, int e1, int e2, int e3, int e4, int e5) {
+        compareExchange(a, e1, e2);
+        compareExchange(a, e4, e5);
+        compareExchange(a, e3, e5);
+        compareExchange(a, e3, e4);
+        compareExchange(a, e1, e4);
+        compareExchange(a, e1, e3);
+        compareExchange(a, e2, e5);
+        compareExchange(a, e2, e4);
+        compareExchange(a, e2, e3);
+    }
+
+    private static void compareExchange(long[] a, int i, int j) {
+        if (a[j] < a[i]) {
+            QuickSort.swap(a, i, j);
+        }
+    }
+
+    private static void insertionSort(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long current = a[i];
+            int j = i - 1;
+            while (j >= lo && current < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    public static void dualPivotQuickSort(double[] a) {
+        dualPivotQuickSort(a, 0, a.length - 1);
+    }
+
+    private static void dualPivotQuickSort(double[] a, int lo, int hi) {
+        // recurse on the two smaller parts and loop on the largest, so the stack stays
+        // O(log n) deep: every part but the largest holds at most half of the range
+        while (hi - lo + 1 >= INSERTION_SORT_CUTOFF) {
+            int n = hi - lo + 1;
+
+            // sort five elements spread around the middle and take the 2nd and 4th as pivots
+            int seventh = (n >> 3) + (n >> 6) + 1;
+            int e3 = lo + n / 2;
+            int e2 = e3 - seventh, e1 = e2 - seventh;
+            int e4 = e3 + seventh, e5 = e4 + seventh;
+            sort5(a, e1, e2, e3, e4, e5);
+            QuickSort.swap(a, lo, e2);
+            QuickSort.swap(a, hi, e4);
+            double p = a[lo], q = a[hi];
+
+            // a[lo+1..l-1] < p <= a[l..k-1] <= q < a[g+1..hi-1]
+            int l = lo + 1, g = hi - 1;
+            for (int k = l; k <= g; k++) {
+                if (Double.compare(a[k], p) < 0) {
+                    QuickSort.swap(a, k, l++);
+                } else if (Double.compare(a[k], q) > 0) {
+                    while (k < g && Double.compare(a[g], q) > 0) {
+                        g--;
+                    }
+                    QuickSort.swap(a, k, g--);
+                    if (Double.compare(a[k], p) < 0) {
+                        QuickSort.swap(a, k, l++);
+                    }
+                }
+            }
+            QuickSort.swap(a, lo, --l);
+            QuickSort.swap(a, hi, ++g);
+
+            int m = l + 1, r = g - 1;
+            if (Double.compare(p, q) == 0) {
+                // every key of the middle part equals both pivots, so it is done
+                r = m - 1;
+            } else if (l < e1 && e5 < g) {
+                // the middle part holds most of the range, so many keys may equal a pivot:
+                // move those to its ends, where they are done
+                for (int k = m; k <= r; k++) {
+                    if (Double.compare(a[k], p) == 0) {
+                        QuickSort.swap(a, k, m++);
+                    } else if (Double.compare(a[k], q) == 0) {
+                        while (k < r && Double.compare(a[r], q) == 0) {
+                            r--;
+                        }
+                        QuickSort.swap(a, k, r--);
+                        if (Double.compare(a[k], p) == 0) {
+                            QuickSort.swap(a, k, m++);
+                        }
+                    }
+                }
+            }
+
+            if (l - lo >= r - m + 1 && l - lo >= hi - g) {
+                dualPivotQuickSort(a, m, r);
+                dualPivotQuickSort(a, g + 1, hi);
+                hi = l - 1;
+            } else if (r - m + 1 >= hi - g) {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, g + 1, hi);
+                lo = m;
+                hi = r;
+            } else {
+                dualPivotQuickSort(a, lo, l - 1);
+                dualPivotQuickSort(a, m, r);
+                lo = g + 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    // sorts a[e1], a[e2], a[e3], a[e4], a[e5] with a sorting network of 9 compare-exchanges
+    private static void sort5(double[] a, int e1, int e2, int e3, int e4, int e5) {
+        compareExchange(a, e1, e2);
+        compareExchange(a, e4, e5);
+        compareExchange(a, e3, e5);
+        compareExchange(a, e3, e4);
+        compareExchange(a, e1, e4);
+        compareExchange(a, e1, e3);
+        compareExchange(a, e2, e5);
+        compareExchange(a, e2, e4);
+        compareExchange(a, e2, e3);
+    }
+
+    private static void compareExchange(double[] a, int i, int j) {
+        if (Double.compare(a[j], a[i]) < 0) {
+            QuickSort.swap(a, i, j);
+        }
+    }
+
+    private static void insertionSort(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            double current = a[i];
+            int j = i - 1;
+            while (j >= lo && Double.compare(current, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    public static void main(String[] args) {
+        String[] array1 = { "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E" };
+        QuickSort.printArray(array1);
+        dualPivotQuickSort(array1);
+        QuickSort.printArray(array1);
+    }
+}
@@ -0,0 +1,341 @@
+import java.util.Comparator;
+
+// Introsort: quicksort with the partition of QuickSort, on the median of 3 moved to a[hi],
+// until the partitions get deeper than 2 floor(log2 n) levels; below that depth a range
+// is heapsorted, so no input, not even one built to defeat the pivot choice, takes more
+// than O(n log n) time. Ranges of fewer than INSERTION_SORT_CUTOFF elements are finished
+// by insertion sort, and only the smaller side of a partition is sorted recursively.
+public class IntroSort {
+
+    private static final int INSERTION_SORT_CUTOFF = 16;
+
+    public static <E extends Comparable<E>> void introSort(E[] a) {
+        introSort(a, 0, a.length - 1, 2 * floorLog2(a.length));
+    }
+
+    private static <E extends Comparable<E>> void introSort(E[] a, int lo, int hi, int depth) {
+        while (hi - lo >= INSERTION_SORT_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            QuickSort.swap(a, hi, QuickSort.median3(a, lo, lo + (hi - lo) / 2, hi));
+            int pivot = QuickSort.partition(a, lo, hi);
+            if (pivot - lo < hi - pivot) {
+                introSort(a, lo, pivot - 1, depth);
+                lo = pivot + 1;
+            } else {
+                introSort(a, pivot + 1, hi, depth);
+                hi = pivot - 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    private static <E extends Comparable<E>> void insertionSort(E[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            E current = a[i];
+            int j = i - 1;
+            while (j >= lo && current.compareTo(a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    private static <E extends Comparable<E>> void heapSort(E[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int k = n / 2 - 1; k >= 0; k--) {
+            sink(a, lo, k, n);
+        }
+        for (int m = n - 1; m > 0; m--) {
+            QuickSort.swap(a, lo, lo + m);
+            sink(a, lo, 0, m);
+        }
+    }
+
+    // restore the max-heap order of the heap a[lo..lo+n-1] below its node k
+    private static <E extends Comparable<E>> void sink(E[] a, int lo, int k, int n) {
+        E v = a[lo + k];
+        while (2 * k + 1 < n) {
+            int j = 2 * k + 1;
+            if (j + 1 < n && a[lo + j].compareTo(a[lo + j + 1]) < 0) {
+                j++;
+            }
+            if (!(v.compareTo(a[lo + j]) < 0)) {
+                break;
+            }
+            a[lo + k] = a[lo + j];
+            k = j;
+        }
+        a[lo + k] = v;
+    }
+
+    // Comparator overloads: the same algorithm, ordered by the given comparator.
+    public static <E> void introSort(E[] a, Comparator<? super E> c) {
+        introSort(a, 0, a.length - 1, 2 * floorLog2(a.length), c);
+    }
+
+    private static <E> void introSort(E[] a, int lo, int hi, int depth, Comparator<? super E> c) {
+        while (hi - lo >= INSERTION_SORT_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi, c);
+                return;
+            }
+            QuickSort.swap(a, hi, QuickSort.median3(a, lo, lo + (hi - lo) / 2, hi, c));
+            int pivot = QuickSort.partition(a, lo, hi, c);
+            if (pivot - lo < hi - pivot) {
+                introSort(a, lo, pivot - 1, depth, c);
+                lo = pivot + 1;
+            } else {
+                introSort(a, pivot + 1, hi, depth, c);
+                hi = pivot - 1;
+            }
+        }
+        insertionSort(a, lo, hi, c);
+    }
+
+    private static <E> void insertionSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+        for (int i = lo + 1; i <= hi; i++) {
+            E current = a[i];
+            int j = i - 1;
+            while (j >= lo && c.compare(current, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    private static <E> void heapSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+        int n = hi - lo + 1;
+        for (int k = n / 2 - 1; k >= 0; k--) {
+            sink(a, lo, k, n, c);
+        }
+        for (int m = n - 1; m > 0; m--) {
+            QuickSort.swap(a, lo, lo + m);
+            sink(a, lo, 0, m, c);
+        }
+    }
+
+    // restore the max-heap order of the heap a[lo..lo+n-1] below its node k
+    private static <E> void sink(E[] a, int lo, int k, int n, Comparator<? super E> c) {
+        E v = a[lo + k];
+        while (2 * k + 1 < n) {
+            int j = 2 * k + 1;
+            if (j + 1 < n && c.compare(a[lo + j], a[lo + j + 1]) < 0) {
+                j++;
+            }
+            if (!(c.compare(v, a[lo + j]) < 0)) {
+                break;
+            }
+            a[lo + k] = a[lo + j];
+            k = j;
+        }
+        a[lo + k] = v;
+    }
+
+    // Primitive overloads. Doubles are ordered as by Double.compare, as in QuickSort.
+    public static void introSort(int[] a) {
+        introSort(a, 0, a.length - 1, 2 * floorLog2(a.length));
+    }
+
+    private static void introSort(int[] a, int lo, int hi, int depth) {
+        while (hi - lo >= INSERTION_SORT_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            QuickSort.swap(a, hi, QuickSort.median3(a, lo, lo + (hi - lo) / 2, hi));
+            int pivot = QuickSort.partition(a, lo, hi);
+            if (pivot - lo < hi - pivot) {
+                introSort(a, lo, pivot - 1, depth);
+                lo = pivot + 1;
+            } else {
+                introSort(a, pivot + 1, hi, depth);
+                hi = pivot - 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    private static void insertionSort(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            int current = a[i];
+            int j = i - 1;
+            while (j >= lo && current < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    private static void heapSort(int[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int k = n / 2 - 1; k >= 0; k--) {
+            sink(a, lo, k, n);
+        }
+        for (int m = n - 1; m > 0; m--) {
+            QuickSort.swap(a, lo, lo + m);
+            sink(a, lo, 0, m);
+        }
+    }
+
+    // restore the max-heap order of the heap a[lo..lo+n-1] below its node k
+    private static void sink(int[] a, int lo, int k, int n) {
+        int v = a[lo + k];
+        while (2 * k + 1 < n) {
+            int j = 2 * k + 1;
+            if (j + 1 < n && a[lo + j] < a[lo + j + 1]) {
+                j++;
+            }
+            if (!(v < a[lo + j])) {
+                break;
+            }
+            a[lo + k] = a[lo + j];
+            k = j;
+        }
+        a[lo + k] = v;
+    }
+
+    public static void introSort(long[] a) {
+        introSort(a, 0, a.length - 1, 2 * floorLog2(a.length));
+    }
+
+    private static void introSort(long[] a, int lo, int hi, int depth) {
+        while (hi - lo >= INSERTION_SORT_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            QuickSort.swap(a, hi, QuickSort.median3(a, lo, lo + (hi - lo) / 2, hi));
+            int pivot = QuickSort.partition(a, lo, hi);
+            if (pivot - lo < hi - pivot) {
+                introSort(a, lo, pivot - 1, depth);
+                lo = pivot + 1;
+            } else {
+                introSort(a, pivot + 1, hi, depth);
+                hi = pivot - 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    private static void insertionSort(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long current = a[i];
+            int j = i - 1;
+            while (j >= lo && current < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    private static void heapSort(long[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int k = n / 2 - 1; k >= 0; k--) {
+            sink(a, lo, k, n);
+        }
+        for (int m = n - 1; m > 0; m--) {
+            QuickSort.swap(a, lo, lo + m);
+            sink(a, lo, 0, m);
+        }
+    }
+
+    // restore the max-heap order of the heap a[lo..lo+n-1] below its node k
+    private static void sink(long[] a, int lo, int k, int n) {
+        long v = a[lo + k];
+        while (2 * k + 1 < n) {
+            int j = 2 * k + 1;
+            if (j + 1 < n && a[lo + j] < a[lo + j + 1]) {
+                j++;
+            }
+            if (!(v < a[lo + j])) {
+                break;
+            }
+            a[lo + k] = a[lo + j];
+            k = j;
+        }
+        a[lo + k] = v;
+    }
+
+    public static void introSort(double[] a) {
+        introSort(a, 0, a.length - 1, 2 * floorLog2(a.length));
+    }
+
+    private static void introSort(double[] a, int lo, int hi, int depth) {
+        while (hi - lo >= INSERTION_SORT_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            QuickSort.swap(a, hi, QuickSort.median3(a, lo, lo + (hi - lo) / 2, hi));
+            int pivot = QuickSort.partition(a, lo, hi);
+            if (pivot - lo < hi - pivot) {
+                introSort(a, lo, pivot - 1, depth);
+                lo = pivot + 1;
+            } else {
+                introSort(a, pivot + 1, hi, depth);
+                hi = pivot - 1;
+            }
+        }
+        insertionSort(a, lo, hi);
+    }
+
+    private static void insertionSort(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            double current = a[i];
+            int j = i - 1;
+            while (j >= lo && Double.compare(current, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = current;
+        }
+    }
+
+    private static void heapSort(double[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int k = n / 2 - 1; k >= 0; k--) {
+            sink(a, lo, k, n);
+        }
+        for (int m = n - 1; m > 0; m--) {
+            QuickSort.swap(a, lo, lo + m);
+            sink(a, lo, 0, m);
+        }
+    }
+
+    // restore the max-heap order of the heap a[lo..lo+n-1] below its node k
+    private static void sink(double[] a, int lo, int k, int n) {
+        double v = a[lo + k];
+        while (2 * k + 1 < n) {
+            int j = 2 * k + 1;
+            if (j + 1 < n && Double.compare(a[lo + j], a[lo + j + 1]) < 0) {
+                j++;
+            }
+            if (!(Double.compare(v, a[lo + j]) < 0)) {
+                break;
+            }
+            a[lo + k] = a[lo + j];
+            k = j;
+        }
+        a[lo + k] = v;
+    }
+
+    private static int floorLog2(int n) {
+        return n == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    public static void main(String[] args) {
+        String[] array1 = { "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E" };
+        QuickSort.printArray(array1);
+        introSort(array1);
+        QuickSort.printArray(array1);
+        introSort(array1, Comparator.reverseOrder());
+        QuickSort.printArray(array1);
+    }
+}
@@ -1,5 +1,10 @@
+import java.util.Comparator;
+
 public class QuickSort {
 
+    // quickSort3Way picks the pivot by ninther above this many elements, by median of 3 below
+    private static final int NINTHER_CUTOFF = 40;
+
     private static <E extends Comparable<E>> void quickSort(E[] a, int lo, int hi) {
         if (lo < hi){
             int pivot = partition(a, lo, hi);
@@ -14,8 +19,8 @@ public class QuickSort {
     }
 
     // partition the subarray a[lo..hi] so that a[lo..pivot-1] <= a[pivot] <= a[pivot+1..hi] and
-    // return the partitioning index i.
-    private static <E extends Comparable<E>> int partition(E[] a, int lo, int hi) {
+    // return the partitioning index i. The partitions are package-private for IntroSort.
+    static <E extends Comparable<E>> int partition(E[] a, int lo, int hi) {
         int i = lo-1;
         E pivot = a[hi];
         for(int j = lo; j < hi; j++ ){
@@ -35,6 +40,409 @@ public class QuickSort {
         return i;    
     }
 
+    // the same partition, ordered by the given comparator
+    static <E> int partition(E[] a, int lo, int hi, Comparator<? super E> c) {
+        int i = lo-1;
+        E pivot = a[hi];
+        for (int j = lo; j < hi; j++) {
+            if (c.compare(a[j], pivot) <= 0) {
+                i++;
+                E temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+            }
+        }
+
+        i++;
+        E temp = a[i];
+        a[i] = a[hi];
+        a[hi] = temp;
+
+        return i;
+    }
+
+    // Primitive overloads: the same algorithm without boxing or compareTo calls.
+    // Doubles are ordered as by Double.compare, so -0.0 < 0.0 and NaN sorts last.
+    public static void quickSort(int[] a) {
+        quickSort(a, 0, a.length - 1);
+    }
+
+    private static void quickSort(int[] a, int lo, int hi) {
+        if (lo < hi){
+            int pivot = partition(a, lo, hi);
+            quickSort(a, lo, pivot - 1);
+            quickSort(a, pivot + 1, hi);
+        }
+    }
+
+    static int partition(int[] a, int lo, int hi) {
+        int i = lo-1;
+        int pivot = a[hi];
+        for (int j = lo; j < hi; j++) {
+            if (a[j] <= pivot) {
+                i++;
+                int temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+            }
+        }
+
+        i++;
+        int temp = a[i];
+        a[i] = a[hi];
+        a[hi] = temp;
+
+        return i;
+    }
+
+    public static void quickSort(long[] a) {
+        quickSort(a, 0, a.length - 1);
+    }
+
+    private static void quickSort(long[] a, int lo, int hi) {
+        if (lo < hi){
+            int pivot = partition(a, lo, hi);
+            quickSort(a, lo, pivot - 1);
+            quickSort(a, pivot + 1, hi);
+        }
+    }
+
+    static int partition(long[] a, int lo, int hi) {
+        int i = lo-1;
+        long pivot = a[hi];
+        for (int j = lo; j < hi; j++) {
+            if (a[j] <= pivot) {
+                i++;
+                long temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+            }
+        }
+
+        i++;
+        long temp = a[i];
+        a[i] = a[hi];
+        a[hi] = temp;
+
+        return i;
+    }
+
+    public static void quickSort(double[] a) {
+        quickSort(a, 0, a.length - 1);
+    }
+
+    private static void quickSort(double[] a, int lo, int hi) {
+        if (lo < hi){
+            int pivot = partition(a, lo, hi);
+            quickSort(a, lo, pivot - 1);
+            quickSort(a, pivot + 1, hi);
+        }
+    }
+
+    static int partition(double[] a, int lo, int hi) {
+        int i = lo-1;
+        double pivot = a[hi];
+        for (int j = lo; j < hi; j++) {
+            if (Double.compare(a[j], pivot) <= 0) {
+                i++;
+                double temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+            }
+        }
+
+        i++;
+        double temp = a[i];
+        a[i] = a[hi];
+        a[hi] = temp;
+
+        return i;
+    }
+
+    // 3-way quicksort for inputs with many equal keys, sorted runs or adversarial order.
+    // The pivot is the median of 3 elements, or Tukey's ninther (the median of three
+    // medians of 3) for ranges of more than NINTHER_CUTOFF elements, so sorted and
+    // reverse-sorted input split evenly. Dijkstra's partitioning gathers the keys equal
+    // to the pivot in the middle, where they are done, so all-equal input takes linear
+    // time. The smaller side is sorted recursively and the larger one by the loop, which
+    // keeps the recursion depth below log2 n.
+    public static <E extends Comparable<E>> void quickSort3Way(E[] a) {
+        quickSort3Way(a, 0, a.length - 1);
+    }
+
+    private static <E extends Comparable<E>> void quickSort3Way(E[] a, int lo, int hi) {
+        while (lo < hi) {
+            swap(a, lo, pivotIndex(a, lo, hi));
+            E v = a[lo];
+            int lt = lo, gt = hi, i = lo + 1;
+            // a[lo..lt-1] < v = a[lt..i-1] < a[gt+1..hi]
+            while (i <= gt) {
+                int cmp = a[i].compareTo(v);
+                if (cmp < 0) {
+                    swap(a, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - lo < hi - gt) {
+                quickSort3Way(a, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                quickSort3Way(a, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+    }
+
+    private static <E extends Comparable<E>> int pivotIndex(E[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        int mid = lo + n / 2;
+        if (n > NINTHER_CUTOFF) {
+            int eps = n / 8;
+            return median3(a, median3(a, lo, lo + eps, lo + 2 * eps),
+                    median3(a, mid - eps, mid, mid + eps),
+                    median3(a, hi - 2 * eps, hi - eps, hi));
+        }
+        return median3(a, lo, mid, hi);
+    }
+
+    static <E extends Comparable<E>> int median3(E[] a, int i, int j, int k) {
+        return a[i].compareTo(a[j]) < 0 ?
+                (a[j].compareTo(a[k]) < 0 ? j : a[i].compareTo(a[k]) < 0 ? k : i) :
+                (a[k].compareTo(a[j]) < 0 ? j : a[k].compareTo(a[i]) < 0 ? k : i);
+    }
+
+    static <E> int median3(E[] a, int i, int j, int k, Comparator<? super E> c) {
+        return c.compare(a[i], a[j]) < 0 ?
+                (c.compare(a[j], a[k]) < 0 ? j : c.compare(a[i], a[k]) < 0 ? k : i) :
+                (c.compare(a[k], a[j]) < 0 ? j : c.compare(a[k], a[i]) < 0 ? k : i);
+    }
+
+    static <E> void swap(E[] a, int i, int j) {
+        E temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void quickSort3Way(int[] a) {
+        quickSort3Way(a, 0, a.length - 1);
+    }
+
+    private static void quickSort3Way(int[] a, int lo, int hi) {
+        while (lo < hi) {
+            swap(a, lo, pivotIndex(a, lo, hi));
+            int v = a[lo];
+            int lt = lo, gt = hi, i = lo + 1;
+            // a[lo..lt-1] < v = a[lt..i-1] < a[gt+1..hi]
+            while (i <= gt) {
+                int cmp = Integer.compare(a[i], v);
+                if (cmp < 0) {
+                    swap(a, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - lo < hi - gt) {
+                quickSort3Way(a, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                quickSort3Way(a, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+    }
+
+    private static int pivotIndex(int[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        int mid = lo + n / 2;
+        if (n > NINTHER_CUTOFF) {
+            int eps = n / 8;
+            return median3(a, median3(a, lo, lo + eps, lo + 2 * eps),
+                    median3(a, mid - eps, mid, mid + eps),
+                    median3(a, hi - 2 * eps, hi - eps, hi));
+        }
+        return median3(a, lo, mid, hi);
+    }
+
+    static int median3(int[] a, int i, int j, int k) {
+        return a[i] < a[j] ?
+                (a[j] < a[k] ? j : a[i] < a[k] ? k : i) :
+                (a[k] < a[j] ? j : a[k] < a[i] ? k : i);
+    }
+
+    static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void quickSort3Way(long[] a) {
+        quickSort3Way(a, 0, a.length - 1);
+    }
+
+    private static void quickSort3Way(long[] a, int lo, int hi) {
+        while (lo < hi) {
+            swap(a, lo, pivotIndex(a, lo, hi));
+            long v = a[lo];
+            int lt = lo, gt = hi, i = lo + 1;
+            // a[lo..lt-1] < v = a[lt..i-1] < a[gt+1..hi]
+            while (i <= gt) {
+                int cmp = Long.compare(a[i], v);
+                if (cmp < 0) {
+                    swap(a, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - lo < hi - gt) {
+                quickSort3Way(a, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                quickSort3Way(a, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+    }
+
+    private static int pivotIndex(long[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        int mid = lo + n / 2;
+        if (n > NINTHER_CUTOFF) {
+            int eps = n / 8;
+            return median3(a, median3(a, lo, lo + eps, lo + 2 * eps),
+                    median3(a, mid - eps, mid, mid + eps),
+                    median3(a, hi - 2 * eps, hi - eps, hi));
+        }
+        return median3(a, lo, mid, hi);
+    }
+
+    static int median3(long[] a, int i, int j, int k) {
+        return a[i] < a[j] ?
+                (a[j] < a[k] ? j : a[i] < a[k] ? k : i) :
+                (a[k] < a[j] ? j : a[k] < a[i] ? k : i);
+    }
+
+    static void swap(long[] a, int i, int j) {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void quickSort3Way(double[] a) {
+        quickSort3Way(a, 0, a.length - 1);
+    }
+
+    private static void quickSort3Way(double[] a, int lo, int hi) {
+        while (lo < hi) {
+            swap(a, lo, pivotIndex(a, lo, hi));
+            double v = a[lo];
+            int lt = lo, gt = hi, i = lo + 1;
+            // a[lo..lt-1] < v = a[lt..i-1] < a[gt+1..hi]
+            while (i <= gt) {
+                int cmp = Double.compare(a[i], v);
+                if (cmp < 0) {
+                    swap(a, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - lo < hi - gt) {
+                quickSort3Way(a, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                quickSort3Way(a, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+    }
+
+    private static int pivotIndex(double[] a, int lo, int hi) {
+        int n = hi - lo + 1;
+        int mid = lo + n / 2;
+        if (n > NINTHER_CUTOFF) {
+            int eps = n / 8;
+            return median3(a, median3(a, lo, lo + eps, lo + 2 * eps),
+                    median3(a, mid - eps, mid, mid + eps),
+                    median3(a, hi - 2 * eps, hi - eps, hi));
+        }
+        return median3(a, lo, mid, hi);
+    }
+
+    static int median3(double[] a, int i, int j, int k) {
+        return Double.compare(a[i], a[j]) < 0 ?
+                (Double.compare(a[j], a[k]) < 0 ? j : Double.compare(a[i], a[k]) < 0 ? k : i) :
+                (Double.compare(a[k], a[j]) < 0 ? j : Double.compare(a[k], a[i]) < 0 ? k : i);
+    }
+
+    static void swap(double[] a, int i, int j) {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // Comparator overloads of quickSort and quickSort3Way: the same algorithms, ordered by
+    // the given comparator.
+    public static <E> void quickSort(E[] a, Comparator<? super E> c) {
+        quickSort(a, 0, a.length - 1, c);
+    }
+
+    private static <E> void quickSort(E[] a, int lo, int hi, Comparator<? super E> c) {
+        if (lo < hi) {
+            int pivot = partition(a, lo, hi, c);
+            quickSort(a, lo, pivot - 1, c);
+            quickSort(a, pivot + 1, hi, c);
+        }
+    }
+
+    public static <E> void quickSort3Way(E[] a, Comparator<? super E> c) {
+        quickSort3Way(a, 0, a.length - 1, c);
+    }
+
+    private static <E> void quickSort3Way(E[] a, int lo, int hi, Comparator<? super E> c) {
+        while (lo < hi) {
+            swap(a, lo, pivotIndex(a, lo, hi, c));
+            E v = a[lo];
+            int lt = lo, gt = hi, i = lo + 1;
+            while (i <= gt) {
+                int cmp = c.compare(a[i], v);
+                if (cmp < 0) {
+                    swap(a, lt++, i++);
+                } else if (cmp > 0) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (lt - lo < hi - gt) {
+                quickSort3Way(a, lo, lt - 1, c);
+                lo = gt + 1;
+            } else {
+                quickSort3Way(a, gt + 1, hi, c);
+                hi = lt - 1;
+            }
+        }
+    }
+
+    private static <E> int pivotIndex(E[] a, int lo, int hi, Comparator<? super E> c) {
+        int n = hi - lo + 1;
+        int mid = lo + n / 2;
+        if (n > NINTHER_CUTOFF) {
+            int eps = n / 8;
+            return median3(a, median3(a, lo, lo + eps, lo + 2 * eps, c),
+                    median3(a, mid - eps, mid, mid + eps, c),
+                    median3(a, hi - 2 * eps, hi - eps, hi, c), c);
+        }
+        return median3(a, lo, mid, hi, c);
+    }
+
     public static <E extends Comparable<E>> void printArray(E[] a) {
         for (E item : a) {
             System.out.print(item + " ");
@@ -48,5 +456,10 @@ public class QuickSort {
         printArray(array1);
         quickSort(array1);
         printArray(array1);
+        String[] array2 = { "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E" };
+        quickSort3Way(array2);
+        printArray(array2);
+        quickSort3Way(array2, Comparator.reverseOrder());
+        printArray(array2);
     }
 }
@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+// Compares the quicksorts of this lecture with each other and with mergeSort from
+// Lecture12, on int[] and Integer[] arrays with several input distributions. Each
+// time is the median of several runs after a few warmup runs. MergeSort is found
+// through the class path:
+//
+//   javac -cp .:../Lecture12 SortBenchmark.java
+//   java -cp .:../Lecture12 SortBenchmark [n | file] [trials]
+//
+// Given a file of integers, in text or in the binary format of Lecture5's
+// IntBinaryFile, instead of n, the benchmark sorts the contents of the file only.
+//
+// quickSort takes quadratic time on every input here but random ones, and overflows
+// the stack long before it finishes, so it is only timed on random input; a file
+// may hold any order, so it is not timed on files either.
+//
+//   n = 1000000, median of 5 runs, in ms
+//   input        type      quickSort 3-way introSort dualPivot mergeSort
+//   random       int[]         163.7 190.4     125.5     138.2     226.5
+//   random       Integer[]     384.1 449.5     354.3     417.9     506.0
+//   sorted       int[]             -  82.1      34.0      21.4      73.7
+//   sorted       Integer[]         - 146.4      61.9      50.0     184.3
+//   reverse      int[]             -  85.1      90.3      22.8      80.2
+//   reverse      Integer[]         - 180.0     187.4      55.8     178.2
+//   organ pipe   int[]             -  99.0     224.8      33.3      48.2
+//   organ pipe   Integer[]         - 132.0     395.1      73.3     174.7
+//   few unique   int[]             -  63.1     110.0      47.5     153.6
+//   few unique   Integer[]         -  93.8     294.1      93.1     270.4
+public class SortBenchmark {
+
+    private static final long SEED = 13;
+    private static final int WARMUP = 3;
+
+    // the number of distinct values of the few unique input
+    private static final int FEW = 100;
+
+    private static final String[] SORTS = { "quickSort", "3-way", "introSort", "dualPivot", "mergeSort" };
+
+    private static final String[] INPUTS = { "random", "sorted", "reverse", "organ pipe", "few unique" };
+
+    // n ints of the named distribution
+    private static int[] input(String name, int n) {
+        Random random = new Random(SEED);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            switch (name) {
+                case "random":     a[i] = random.nextInt(); break;
+                case "sorted":     a[i] = i; break;
+                case "reverse":    a[i] = n - i; break;
+                case "organ pipe": a[i] = Math.min(i, n - i); break;
+                case "few unique": a[i] = random.nextInt(FEW); break;
+                default: throw new IllegalArgumentException("Unknown input " + name);
+            }
+        }
+        return a;
+    }
+
+    // the ints in the file, which is either whitespace-separated text or starts with the
+    // "INTS" header of Lecture5's IntBinaryFile: the count at offset 8 and the values,
+    // little-endian, from offset 32; the checksum is not verified
+    private static int[] readInts(String file) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(Paths.get(file));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not open " + file, e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length >= 32 && new String(bytes, 0, 4, StandardCharsets.US_ASCII).equals("INTS")) {
+            long count = buffer.getLong(8);
+            if (count < 0 || count > (bytes.length - 32) / 4) {
+                throw new IllegalArgumentException(file + " is truncated or has a corrupt header");
+            }
+            IntBuffer values = buffer.position(32).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int[] a = new int[(int) count];
+            values.get(a);
+            return a;
+        }
+        String text = new String(bytes, StandardCharsets.US_ASCII).trim();
+        if (text.isEmpty()) {
+            return new int[0];
+        }
+        String[] tokens = text.split("\\s+");
+        int[] a = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            a[i] = Integer.parseInt(tokens[i]);
+        }
+        return a;
+    }
+
+    private static Integer[] box(int[] a) {
+        Integer[] boxed = new Integer[a.length];
+        for (int i = 0; i < a.length; i++) {
+            boxed[i] = a[i];
+        }
+        return boxed;
+    }
+
+    private static Consumer<int[]> intSort(String name) {
+        switch (name) {
+            case "quickSort": return QuickSort::quickSort;
+            case "3-way":     return QuickSort::quickSort3Way;
+            case "introSort": return IntroSort::introSort;
+            case "dualPivot": return DualPivotQuickSort::dualPivotQuickSort;
+            case "mergeSort": return MergeSort::mergeSort;
+            default: throw new IllegalArgumentException("Unknown sort " + name);
+        }
+    }
+
+    private static Consumer<Integer[]> integerSort(String name) {
+        switch (name) {
+            case "quickSort": return QuickSort::quickSort;
+            case "3-way":     return QuickSort::quickSort3Way;
+            case "introSort": return IntroSort::introSort;
+            case "dualPivot": return DualPivotQuickSort::dualPivotQuickSort;
+            case "mergeSort": return MergeSort::mergeSort;
+            default: throw new IllegalArgumentException("Unknown sort " + name);
+        }
+    }
+
+    // median time in milliseconds of sorting copies of a
+    private static double time(int[] a, Consumer<int[]> sort, int trials) {
+        double[] times = new double[trials];
+        for (int t = -WARMUP; t < trials; t++) {
+            int[] copy = a.clone();
+            long start = System.nanoTime();
+            sort.accept(copy);
+            if (t >= 0) {
+                times[t] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        return times[trials / 2];
+    }
+
+    private static double time(Integer[] a, Consumer<Integer[]> sort, int trials) {
+        double[] times = new double[trials];
+        for (int t = -WARMUP; t < trials; t++) {
+            Integer[] copy = a.clone();
+            long start = System.nanoTime();
+            sort.accept(copy);
+            if (t >= 0) {
+                times[t] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        return times[trials / 2];
+    }
+
+    // prints the time of the sort on the input in its column, or - if quickSort would not finish
+    private static void printTime(String sort, String input, DoubleSupplier time) {
+        String column = "%" + Math.max(5, sort.length()) + "s";
+        if (sort.equals("quickSort") && !input.equals("random")) {
+            System.out.printf(" " + column, "-");
+        } else {
+            System.out.printf(" " + column, String.format("%.1f", time.getAsDouble()));
+        }
+    }
+
+    public static void main(String[] args) {
+        int n = 1000000;
+        String file = null;
+        if (args.length > 0) {
+            if (args[0].matches("\\d+")) {
+                n = Integer.parseInt(args[0]);
+            } else {
+                file = args[0];
+            }
+        }
+        int trials = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String[] names = INPUTS;
+        int[] fromFile = null;
+        if (file != null) {
+            names = new String[] { file };
+            fromFile = readInts(file);
+            n = fromFile.length;
+        }
+
+        System.out.println("n = " + n + ", median of " + trials + " runs, in ms");
+        System.out.printf("%-12s %-9s", "input", "type");
+        for (String sort : SORTS) {
+            System.out.printf(" %" + Math.max(5, sort.length()) + "s", sort);
+        }
+        System.out.println();
+        for (String input : names) {
+            int[] a = fromFile != null ? fromFile : input(input, n);
+            Integer[] boxed = box(a);
+            System.out.printf("%-12s %-9s", input, "int[]");
+            for (String sort : SORTS) {
+                printTime(sort, input, () -> time(a, intSort(sort), trials));
+            }
+            System.out.println();
+            System.out.printf("%-12s %-9s", input, "Integer[]");
+            for (String sort : SORTS) {
+                printTime(sort, input, () -> time(boxed, integerSort(sort), trials));
+            }
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/******************************************************************************
+ *  Compilation:  javac DoublingTest.java
+ *  Execution:    java DoublingTest [-algorithm name] [-dir directory] [-max n]
+ *                                  [-warmup w] [-trials t] [-csv results.csv]
+ *  Dependencies: ThreeSumEngine.java IntFileReader.java Stopwatch.java
+ *
+ *  Runs a ThreeSum algorithm on inputs of size 1000, 2000, 4000, ... up to
+ *  the given maximum (default 32000), and prints the median time for each
+ *  size together with the doubling ratio T(2n) / T(n).
+ *
+ *  The input of size n is the file (n/1000)Kints.txt in the given directory
+ *  (default the current one); sizes without such a file use n uniformly
+ *  random integers in [-1,000,000, 1,000,000] from a fixed seed.
+ *
+ *  Each size is timed t times (default 5) after w warmup runs on the smallest
+ *  input (default 3). Finally the exponent b of T(n) = a n^b is fitted by
+ *  least squares on log T versus log n, and the model is used to extrapolate
+ *  the running time for n = 1,000,000. With -csv the table is also written
+ *  to a file, with the fitted exponent on every row.
+ *
+ *  % java DoublingTest -algorithm brute -max 4000 -trials 1
+ *  algorithm brute, 1 trials, 3 warmup runs
+ *          n    time (s)   ratio
+ *       1000       0.375       -
+ *       2000       2.947     7.9
+ *       4000      23.487     8.0
+ *  T(n) = 4.167e-10 n^2.98
+ *  predicted time for n = 1000000: 335875250.5 s
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code DoublingTest} class provides a client for measuring the
+ *  running time of a ThreeSum algorithm as the input doubles, and for
+ *  estimating its order of growth.
+ */
+public class DoublingTest {
+
+	private static final int FIRST_SIZE = 1000;
+	private static final int MAX_VALUE = 1000000;
+	private static final long SEED = 622023;
+	private static final int EXTRAPOLATION_SIZE = 1000000;
+
+	private static final String USAGE = "Usage: java DoublingTest [-algorithm name] [-dir directory] [-max n]"
+			+ " [-warmup w] [-trials t] [-csv results.csv]";
+
+	// Do not instantiate.
+	private DoublingTest() { }
+
+	/**
+	 * Returns the input of size {@code n}: the Kints file of that size
+	 * in {@code dir} if it exists, and random integers otherwise.
+	 *
+	 * @param  dir the directory of the Kints files
+	 * @param  n the size of the input
+	 * @return an array of {@code n} integers
+	 */
+	public static int[] input(Path dir, int n) {
+		Path file = dir.resolve((n / 1000) + "Kints.txt");
+		if (n % 1000 == 0 && Files.isReadable(file)) {
+			return IntFileReader.readInts(file);
+		}
+		Random random = new Random(SEED + n);
+		int[] a = new int[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = random.nextInt(2 * MAX_VALUE + 1) - MAX_VALUE;
+		}
+		return a;
+	}
+
+	/**
+	 * Returns the median time (in seconds) of {@code trials} runs of the algorithm on {@code a}.
+	 *
+	 * @param  algorithm the algorithm to time
+	 * @param  a the input
+	 * @param  trials the number of runs
+	 * @return the median running time in seconds
+	 * @throws IllegalArgumentException if {@code trials < 1}
+	 */
+	public static double time(ThreeSumEngine.Algorithm algorithm, int[] a, int trials) {
+		if (trials < 1) {
+			throw new IllegalArgumentException("The number of trials must be positive: " + trials);
+		}
+		double[] times = new double[trials];
+		for (int t = 0; t < trials; t++) {
+			Stopwatch timer = new Stopwatch();
+			ThreeSumEngine.count(a, algorithm);
+			times[t] = timer.elapsedTime();
+		}
+		Arrays.sort(times);
+		return times[trials / 2];
+	}
+
+	/**
+	 * Fits {@code log y = log a + b log x} by least squares and returns
+	 * {@code {a, b}}. Points with a non-positive {@code y} are ignored.
+	 *
+	 * @param  x the sizes
+	 * @param  y the times
+	 * @param  points the number of points to use
+	 * @return the coefficient a and the exponent b of the power law
+	 */
+	public static double[] powerLaw(double[] x, double[] y, int points) {
+		int m = 0;
+		double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+		for (int i = 0; i < points; i++) {
+			if (y[i] <= 0) {
+				continue;
+			}
+			double lx = Math.log(x[i]), ly = Math.log(y[i]);
+			sumX += lx;
+			sumY += ly;
+			sumXX += lx * lx;
+			sumXY += lx * ly;
+			m++;
+		}
+		if (m < 2) {
+			return new double[] { Double.NaN, Double.NaN };
+		}
+		double b = (m * sumXY - sumX * sumY) / (m * sumXX - sumX * sumX);
+		double logA = (sumY - b * sumX) / m;
+		return new double[] { Math.exp(logA), b };
+	}
+
+	/**
+	 * Runs the doubling test described in the class comment.
+	 *
+	 * @param args the command-line options
+	 */
+	public static void main(String[] args) {
+		ThreeSumEngine.Algorithm algorithm = ThreeSumEngine.Algorithm.AUTO;
+		Path dir = Paths.get(".");
+		int max = 32000;
+		int warmup = 3;
+		int trials = 5;
+		String csv = null;
+		for (int arg = 0; arg < args.length; arg++) {
+			if (arg+1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[arg]);
+			}
+			switch (args[arg]) {
+				case "-algorithm": algorithm = ThreeSumEngine.Algorithm.forFlag(args[++arg]); break;
+				case "-dir":       dir = Paths.get(args[++arg]); break;
+				case "-max":       max = Integer.parseInt(args[++arg]); break;
+				case "-warmup":    warmup = Integer.parseInt(args[++arg]); break;
+				case "-trials":    trials = Integer.parseInt(args[++arg]); break;
+				case "-csv":       csv = args[++arg]; break;
+				default: throw new IllegalArgumentException("Unknown option " + args[arg]);
+			}
+		}
+		if (trials < 1) {
+			throw new IllegalArgumentException("-trials must be at least 1, not " + trials + "\n" + USAGE);
+		}
+
+		int rows = 0;
+		for (long n = FIRST_SIZE; n <= max; n *= 2) {
+			rows++;
+		}
+		double[] sizes = new double[rows];
+		double[] times = new double[rows];
+
+		int[] smallest = input(dir, FIRST_SIZE);
+		for (int w = 0; w < warmup; w++) {
+			ThreeSumEngine.count(smallest, algorithm);
+		}
+
+		System.out.println("algorithm " + algorithm.flag() + ", " + trials + " trials, " + warmup + " warmup runs");
+		System.out.printf("%9s %11s %7s%n", "n", "time (s)", "ratio");
+		for (int r = 0; r < rows; r++) {
+			int n = FIRST_SIZE << r;
+			sizes[r] = n;
+			times[r] = time(algorithm, input(dir, n), trials);
+			String ratio = r == 0 || times[r-1] <= 0 ? "-" : String.format(Locale.ROOT, "%.1f", times[r] / times[r-1]);
+			System.out.printf(Locale.ROOT, "%9d %11.3f %7s%n", n, times[r], ratio);
+		}
+
+		double[] fit = powerLaw(sizes, times, rows);
+		System.out.printf(Locale.ROOT, "T(n) = %.3e n^%.2f%n", fit[0], fit[1]);
+		System.out.printf(Locale.ROOT, "predicted time for n = %d: %.1f s%n", EXTRAPOLATION_SIZE,
+				fit[0] * Math.pow(EXTRAPOLATION_SIZE, fit[1]));
+
+		if (csv != null) {
+			try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(csv)))) {
+				out.println("algorithm,n,seconds,ratio,exponent");
+				for (int r = 0; r < rows; r++) {
+					String ratio = r == 0 || times[r-1] <= 0 ? "" : String.format(Locale.ROOT, "%.4f", times[r] / times[r-1]);
+					out.printf(Locale.ROOT, "%s,%d,%.6f,%s,%.4f%n", algorithm.flag(), (long) sizes[r], times[r], ratio, fit[1]);
+				}
+			}
+			catch (IOException ioe) {
+				throw new IllegalArgumentException("Could not write " + csv, ioe);
+			}
+		}
+	}
+}
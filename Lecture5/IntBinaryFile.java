@@ -0,0 +1,316 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/******************************************************************************
+ *  Compilation:  javac IntBinaryFile.java
+ *  Execution:    java IntBinaryFile input.txt output.bin
+ *                java IntBinaryFile -info input.bin
+ *  Dependencies: IntFileReader.java
+ *
+ *  A binary companion format for the Kints files, so that large datasets
+ *  load without any parsing. All fields are little-endian:
+ *
+ *    offset  size  field
+ *         0     4  magic, the bytes "INTS"
+ *         4     4  format version (1)
+ *         8     8  count n
+ *        16     4  smallest value (0 if n == 0)
+ *        20     4  largest value (0 if n == 0)
+ *        24     8  checksum
+ *        32    4n  the values, as int32
+ *
+ *  The checksum is the sum, modulo 2^64, of a 64-bit mix of each value with
+ *  its index. Unlike a CRC it can be computed over slices in any order and
+ *  added up, which lets parallel writers produce it.
+ *
+ *  The values are mapped as one buffer, and a mapping holds at most 2 GiB,
+ *  so a file holds at most MAX_COUNT = 536870911 values; longer files are
+ *  neither written nor read.
+ *
+ *  % java IntBinaryFile 32Kints.txt 32Kints.bin
+ *  32Kints.bin: 32000 ints in [-999985, 999982], checksum fb2f4ea6c9e7bff8
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code IntBinaryFile} class provides static methods for writing an
+ *  array of integers in the binary format described above, for mapping such
+ *  a file as an {@link IntBuffer}, and for copying it into an {@code int[]}.
+ */
+public class IntBinaryFile {
+
+	/**
+	 * The number of bytes before the first value.
+	 */
+	public static final int HEADER_SIZE = 32;
+
+	/**
+	 * The largest number of values in a file: 4 bytes each, they must fit
+	 * in a single mapping of at most {@code Integer.MAX_VALUE} bytes.
+	 */
+	public static final int MAX_COUNT = Integer.MAX_VALUE / 4;
+
+	private static final int MAGIC = 'I' | 'N' << 8 | 'T' << 16 | 'S' << 24;
+	private static final int VERSION = 1;
+
+	// values are written through a direct buffer of this many bytes
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	// Do not instantiate.
+	private IntBinaryFile() { }
+
+	/**
+	 * The header of a binary integer file.
+	 */
+	public static final class Header {
+		private final long count;
+		private final int min;
+		private final int max;
+		private final long checksum;
+
+		Header(long count, int min, int max, long checksum) {
+			this.count = count;
+			this.min = min;
+			this.max = max;
+			this.checksum = checksum;
+		}
+
+		/**
+		 * Returns the number of values in the file.
+		 *
+		 * @return the number of values in the file
+		 */
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * Returns the smallest value in the file, or 0 if it is empty.
+		 *
+		 * @return the smallest value in the file
+		 */
+		public int min() {
+			return min;
+		}
+
+		/**
+		 * Returns the largest value in the file, or 0 if it is empty.
+		 *
+		 * @return the largest value in the file
+		 */
+		public int max() {
+			return max;
+		}
+
+		/**
+		 * Returns the checksum of the values in the file.
+		 *
+		 * @return the checksum of the values in the file
+		 */
+		public long checksum() {
+			return checksum;
+		}
+
+		@Override
+		public String toString() {
+			return count + " ints in [" + min + ", " + max + "], checksum " + Long.toHexString(checksum);
+		}
+	}
+
+	/**
+	 * Returns the contribution of {@code value} at position {@code index}
+	 * to the checksum; the checksum of a file is the sum of these.
+	 */
+	static long checksum(long index, int value) {
+		long x = (index << 32) ^ (value & 0xffffffffL);
+		x ^= x >>> 33;
+		x *= 0xff51afd7ed558ccdL;
+		x ^= x >>> 33;
+		x *= 0xc4ceb9fe1a85ec53L;
+		x ^= x >>> 33;
+		return x;
+	}
+
+	/**
+	 * Writes the array to the given file in the binary format,
+	 * replacing the file if it exists.
+	 *
+	 * @param  a the array of integers
+	 * @param  path the path of the file
+	 * @throws IllegalArgumentException if the array holds more than
+	 *         {@link #MAX_COUNT} values or the file cannot be written
+	 */
+	public static void write(int[] a, Path path) {
+		checkCount(a.length);
+		int min = a.length == 0 ? 0 : a[0];
+		int max = min;
+		long checksum = 0;
+		for (int i = 0; i < a.length; i++) {
+			min = Math.min(min, a[i]);
+			max = Math.max(max, a[i]);
+			checksum += checksum(i, a[i]);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeHeader(channel, new Header(a.length, min, max, checksum));
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			IntBuffer ints = buffer.asIntBuffer();
+			long position = HEADER_SIZE;
+			for (int i = 0; i < a.length; ) {
+				int chunk = Math.min(ints.capacity(), a.length - i);
+				ints.clear();
+				ints.put(a, i, chunk);
+				buffer.clear().limit(4 * chunk);
+				while (buffer.hasRemaining()) {
+					position += channel.write(buffer, position);
+				}
+				i += chunk;
+			}
+		}
+		catch (IOException ioe) {
+			throw new IllegalArgumentException("Could not write " + path, ioe);
+		}
+	}
+
+	/**
+	 * Writes the header at the start of the channel.
+	 */
+	static void writeHeader(FileChannel channel, Header header) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(header.count)
+		      .putInt(header.min).putInt(header.max).putLong(header.checksum);
+		buffer.flip();
+		long position = 0;
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Returns true if the given file starts with the magic bytes of the binary format.
+	 *
+	 * @param  path the path of the file
+	 * @return true if the file is in the binary format
+	 */
+	public static boolean isBinary(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) { }
+			return !buffer.hasRemaining() && buffer.getInt(0) == MAGIC;
+		}
+		catch (IOException ioe) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the header of the given file.
+	 *
+	 * @param  path the path of the file
+	 * @return the header of the file
+	 * @throws IllegalArgumentException if the file cannot be read, is not in the
+	 *         binary format, or holds more than {@link #MAX_COUNT} values
+	 */
+	public static Header readHeader(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return readHeader(channel, path);
+		}
+		catch (IOException ioe) {
+			throw new IllegalArgumentException("Could not open " + path, ioe);
+		}
+	}
+
+	private static Header readHeader(FileChannel channel, Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) { }
+		if (buffer.hasRemaining() || buffer.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException(path + " is not a binary integer file");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IllegalArgumentException(path + " has unsupported version " + buffer.getInt(4));
+		}
+		Header header = new Header(buffer.getLong(8), buffer.getInt(16), buffer.getInt(20), buffer.getLong(24));
+		if (header.count < 0 || channel.size() < HEADER_SIZE + 4 * header.count) {
+			throw new IllegalArgumentException(path + " is truncated or has a corrupt header");
+		}
+		if (header.count > MAX_COUNT) {
+			throw new IllegalArgumentException(path + " holds " + header.count
+					+ " ints, more than the " + MAX_COUNT + " that can be mapped");
+		}
+		return header;
+	}
+
+	/**
+	 * Throws an exception if a file of {@code n} values could not be read back.
+	 */
+	static void checkCount(long n) {
+		if (n > MAX_COUNT) {
+			throw new IllegalArgumentException("Cannot write " + n
+					+ " ints, more than the " + MAX_COUNT + " that can be mapped");
+		}
+	}
+
+	/**
+	 * Maps the values of the given file into memory, without copying them.
+	 *
+	 * @param  path the path of the file
+	 * @return a read-only little-endian view of the values
+	 * @throws IllegalArgumentException if the file cannot be read or is not in the binary format
+	 */
+	public static IntBuffer map(Path path) {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			Header header = readHeader(channel, path);
+			return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, 4 * header.count)
+			              .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		}
+		catch (IOException ioe) {
+			throw new IllegalArgumentException("Could not open " + path, ioe);
+		}
+	}
+
+	/**
+	 * Copies the values of the given file into a new array with one bulk
+	 * transfer, and checks them against the checksum in the header.
+	 *
+	 * @param  path the path of the file
+	 * @return the values in the file, in order
+	 * @throws IllegalArgumentException if the file cannot be read, is not in the
+	 *         binary format, or does not match its checksum
+	 */
+	public static int[] readInts(Path path) {
+		Header header = readHeader(path);
+		int[] a = new int[(int) header.count];
+		map(path).get(a);
+		long checksum = 0;
+		for (int i = 0; i < a.length; i++) {
+			checksum += checksum(i, a[i]);
+		}
+		if (checksum != header.checksum) {
+			throw new IllegalArgumentException(path + " does not match its checksum");
+		}
+		return a;
+	}
+
+	/**
+	 * Converts the text file named by the first command-line argument into the
+	 * binary file named by the second, or with {@code -info} prints the header
+	 * of a binary file.
+	 *
+	 * @param args the command-line arguments
+	 */
+	public static void main(String[] args) {
+		if (args[0].equals("-info")) {
+			System.out.println(args[1] + ": " + readHeader(Paths.get(args[1])));
+			return;
+		}
+		Path output = Paths.get(args[1]);
+		write(IntFileReader.readInts(args[0]), output);
+		System.out.println(output + ": " + readHeader(output));
+	}
+}
@@ -0,0 +1,442 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/******************************************************************************
+ *  Compilation:  javac IntGenerator.java
+ *  Execution:    java IntGenerator n output [-distribution name] [-seed s]
+ *                                   [-format text|binary] [-threads p]
+ *  Dependencies: IntBinaryFile.java Stopwatch.java
+ *
+ *  Writes n integers in (-1,000,000, 1,000,000) drawn from one of these
+ *  distributions (default uniform):
+ *
+ *    uniform     independent and uniformly distributed
+ *    zipf        Zipf with exponent 1 over 65,536 values, so a few values
+ *                are very frequent and most are rare
+ *    sorted      evenly spread and in ascending order
+ *    reverse     evenly spread and in descending order
+ *    fewunique   independent and uniform over 16 values
+ *    organpipe   ascending over the first half, descending over the second
+ *
+ *  The output is either text in the layout of the Kints files, one value
+ *  per line right-justified in 7 characters, or the binary format of
+ *  IntBinaryFile. Since every line has the same width, the file offset of
+ *  every value is known in advance: the values are generated in chunks of
+ *  about a million, each from its own random generator seeded from the seed
+ *  and the chunk number, and fork/join tasks encode the chunks into direct
+ *  buffers and write them to the file at their offsets, in any order.
+ *  The same seed therefore gives the same file for any number of threads.
+ *
+ *  % java IntGenerator 100000000 100Mints.bin -format binary
+ *  100000000 ints (uniform, seed 622023) in 1.308233147 seconds
+ *
+ *  % java IntGenerator 100000000 100Mints.txt
+ *  100000000 ints (uniform, seed 622023) in 4.589560866 seconds
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code IntGenerator} class provides static methods for generating
+ *  reproducible arrays and files of integers with a given distribution.
+ */
+public class IntGenerator {
+
+	/**
+	 * The generated values lie in [-MAX_VALUE, MAX_VALUE].
+	 */
+	public static final int MAX_VALUE = 999999;
+
+	/**
+	 * The seed used when none is given.
+	 */
+	public static final long DEFAULT_SEED = 622023;
+
+	// the characters of a text line, including the newline
+	private static final int LINE_WIDTH = 8;
+
+	// every chunk of this many values has its own random generator
+	private static final int CHUNK = 1 << 20;
+
+	// the number of ranks of the Zipf distribution, and of values of fewunique
+	private static final int ZIPF_RANKS = 1 << 16;
+	private static final int FEW_UNIQUE = 16;
+
+	// Do not instantiate.
+	private IntGenerator() { }
+
+	/**
+	 * The distributions the values can be drawn from.
+	 */
+	public enum Distribution {
+		UNIFORM("uniform"),
+		ZIPF("zipf"),
+		SORTED("sorted"),
+		REVERSE("reverse"),
+		FEW_UNIQUE("fewunique"),
+		ORGAN_PIPE("organpipe");
+
+		private final String flag;
+
+		Distribution(String flag) {
+			this.flag = flag;
+		}
+
+		/**
+		 * Returns the name used to select this distribution on the command line.
+		 *
+		 * @return the command-line name of this distribution
+		 */
+		public String flag() {
+			return flag;
+		}
+
+		/**
+		 * Returns the distribution with the given command-line name.
+		 *
+		 * @param flag the command-line name of the distribution
+		 * @return the distribution with the given command-line name
+		 * @throws IllegalArgumentException if there is no such distribution
+		 */
+		public static Distribution forFlag(String flag) {
+			for (Distribution distribution : values()) {
+				if (distribution.flag.equalsIgnoreCase(flag)) {
+					return distribution;
+				}
+			}
+			throw new IllegalArgumentException("Unknown distribution " + flag);
+		}
+	}
+
+	/**
+	 * Returns {@code n} integers from the given distribution; the same as the
+	 * values of the file written by {@link #write} with the same arguments.
+	 *
+	 * @param  distribution the distribution of the values
+	 * @param  n the number of values
+	 * @param  seed the seed of the random generators
+	 * @return an array of {@code n} integers
+	 */
+	public static int[] generate(Distribution distribution, int n, long seed) {
+		int[] a = new int[n];
+		int[] values = valueTable(distribution, seed);
+		for (int from = 0; from < n; from += CHUNK) {
+			fill(distribution, values, seed, n, from, a, from, Math.min(CHUNK, n - from));
+		}
+		return a;
+	}
+
+	// a[offset..offset+count-1] = the values at indices from..from+count-1, where from is a multiple of CHUNK;
+	// values is the table of valueTable(distribution, seed)
+	private static void fill(Distribution distribution, int[] values, long seed, long n, long from,
+			int[] a, int offset, int count) {
+		SplittableRandom random = new SplittableRandom(mix(seed + (from / CHUNK) * 0x9e3779b97f4a7c15L));
+		switch (distribution) {
+			case UNIFORM:
+				for (int i = 0; i < count; i++) {
+					a[offset + i] = random.nextInt(-MAX_VALUE, MAX_VALUE + 1);
+				}
+				break;
+			case ZIPF: {
+				double[] cdf = Zipf.CDF;
+				for (int i = 0; i < count; i++) {
+					a[offset + i] = values[lowerBound(cdf, random.nextDouble())];
+				}
+				break;
+			}
+			case FEW_UNIQUE:
+				for (int i = 0; i < count; i++) {
+					a[offset + i] = values[random.nextInt(FEW_UNIQUE)];
+				}
+				break;
+			case SORTED:
+				for (int i = 0; i < count; i++) {
+					a[offset + i] = ramp(from + i, n - 1);
+				}
+				break;
+			case REVERSE:
+				for (int i = 0; i < count; i++) {
+					a[offset + i] = ramp(n - 1 - (from + i), n - 1);
+				}
+				break;
+			case ORGAN_PIPE:
+				for (int i = 0; i < count; i++) {
+					long index = from + i;
+					a[offset + i] = ramp(Math.min(index, n - 1 - index), (n - 1) / 2);
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown distribution " + distribution);
+		}
+	}
+
+	// the value at step i of an evenly spaced ascending sequence from -MAX_VALUE to MAX_VALUE in steps 0..last
+	private static int ramp(long i, long last) {
+		if (last <= 0) {
+			return -MAX_VALUE;
+		}
+		return (int) (-MAX_VALUE + 2L * MAX_VALUE * i / last);
+	}
+
+	// the distinct values that zipf and fewunique draw from, in an order fixed by the seed; null for the others
+	private static int[] valueTable(Distribution distribution, long seed) {
+		int m;
+		switch (distribution) {
+			case ZIPF:       m = ZIPF_RANKS; break;
+			case FEW_UNIQUE: m = FEW_UNIQUE; break;
+			default:         return null;
+		}
+		SplittableRandom random = new SplittableRandom(mix(~seed));
+		int[] values = new int[m];
+		Set<Integer> seen = new HashSet<Integer>();
+		for (int i = 0; i < m; ) {
+			int value = random.nextInt(-MAX_VALUE, MAX_VALUE + 1);
+			if (seen.add(value)) {
+				values[i++] = value;
+			}
+		}
+		return values;
+	}
+
+	// the cumulative distribution of Zipf with exponent 1 over ZIPF_RANKS ranks, built on first use
+	private static class Zipf {
+		static final double[] CDF = cdf();
+
+		private static double[] cdf() {
+			double[] cdf = new double[ZIPF_RANKS];
+			double sum = 0;
+			for (int r = 0; r < ZIPF_RANKS; r++) {
+				sum += 1.0 / (r + 1);
+				cdf[r] = sum;
+			}
+			for (int r = 0; r < ZIPF_RANKS; r++) {
+				cdf[r] /= sum;
+			}
+			cdf[ZIPF_RANKS - 1] = 1.0;
+			return cdf;
+		}
+	}
+
+	// first index in cdf with cdf[index] > u
+	private static int lowerBound(double[] cdf, double u) {
+		int lo = 0, hi = cdf.length - 1;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (cdf[mid] <= u) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	// 64-bit finalizer from MurmurHash3
+	private static long mix(long x) {
+		x ^= x >>> 33;
+		x *= 0xff51afd7ed558ccdL;
+		x ^= x >>> 33;
+		x *= 0xc4ceb9fe1a85ec53L;
+		x ^= x >>> 33;
+		return x;
+	}
+
+	/**
+	 * Writes {@code n} integers from the given distribution to the given file,
+	 * as text in the layout of the Kints files or in the binary format of
+	 * {@link IntBinaryFile}, replacing the file if it exists.
+	 *
+	 * @param  distribution the distribution of the values
+	 * @param  n the number of values
+	 * @param  seed the seed of the random generators
+	 * @param  path the path of the file
+	 * @param  binary true for the binary format, false for text
+	 * @param  pool the pool that generates and writes the chunks
+	 * @throws IllegalArgumentException if the file cannot be written, or if it is
+	 *         binary and {@code n} exceeds {@link IntBinaryFile#MAX_COUNT}
+	 */
+	public static void write(Distribution distribution, int n, long seed, Path path, boolean binary, ForkJoinPool pool) {
+		if (binary) {
+			IntBinaryFile.checkCount(n);
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			int chunks = (n + CHUNK - 1) / CHUNK;
+			Summary summary = pool.invoke(new WriteTask(channel, distribution, valueTable(distribution, seed),
+					n, seed, binary, 0, chunks));
+			if (binary) {
+				IntBinaryFile.writeHeader(channel, new IntBinaryFile.Header(n,
+						n == 0 ? 0 : summary.min, n == 0 ? 0 : summary.max, summary.checksum));
+			}
+		}
+		catch (IOException ioe) {
+			throw new IllegalArgumentException("Could not write " + path, ioe);
+		}
+	}
+
+	// the smallest and largest value and the IntBinaryFile checksum of some chunks
+	private static final class Summary {
+		final int min, max;
+		final long checksum;
+
+		Summary(int min, int max, long checksum) {
+			this.min = min;
+			this.max = max;
+			this.checksum = checksum;
+		}
+
+		Summary combine(Summary that) {
+			return new Summary(Math.min(min, that.min), Math.max(max, that.max), checksum + that.checksum);
+		}
+	}
+
+	// generates and writes chunks lo..hi-1, splitting down to single chunks
+	private static class WriteTask extends RecursiveTask<Summary> {
+		private static final long serialVersionUID = 1L;
+
+		// each worker thread reuses one array and one direct buffer
+		private static final ThreadLocal<int[]> VALUES = ThreadLocal.withInitial(() -> new int[CHUNK]);
+		private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() ->
+				ByteBuffer.allocateDirect(CHUNK * LINE_WIDTH).order(ByteOrder.LITTLE_ENDIAN));
+
+		private final FileChannel channel;
+		private final Distribution distribution;
+		private final int[] values;
+		private final int n;
+		private final long seed;
+		private final boolean binary;
+		private final int lo, hi;
+
+		WriteTask(FileChannel channel, Distribution distribution, int[] values, int n, long seed,
+				boolean binary, int lo, int hi) {
+			this.channel = channel;
+			this.distribution = distribution;
+			this.values = values;
+			this.n = n;
+			this.seed = seed;
+			this.binary = binary;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected Summary compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				WriteTask left = new WriteTask(channel, distribution, values, n, seed, binary, lo, mid);
+				WriteTask right = new WriteTask(channel, distribution, values, n, seed, binary, mid, hi);
+				left.fork();
+				Summary summary = right.compute();
+				return left.join().combine(summary);
+			}
+			if (lo == hi) {
+				return new Summary(Integer.MAX_VALUE, Integer.MIN_VALUE, 0);
+			}
+			long from = (long) lo * CHUNK;
+			int count = (int) Math.min(CHUNK, n - from);
+			int[] a = VALUES.get();
+			fill(distribution, values, seed, n, from, a, 0, count);
+
+			int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+			long checksum = 0;
+			for (int i = 0; i < count; i++) {
+				min = Math.min(min, a[i]);
+				max = Math.max(max, a[i]);
+				checksum += IntBinaryFile.checksum(from + i, a[i]);
+			}
+
+			ByteBuffer buffer = BUFFER.get();
+			buffer.clear();
+			long position;
+			if (binary) {
+				IntBuffer ints = buffer.asIntBuffer();
+				ints.put(a, 0, count);
+				buffer.limit(4 * count);
+				position = IntBinaryFile.HEADER_SIZE + 4 * from;
+			} else {
+				encode(a, count, buffer);
+				buffer.flip();
+				position = LINE_WIDTH * from;
+			}
+			try {
+				while (buffer.hasRemaining()) {
+					position += channel.write(buffer, position);
+				}
+			}
+			catch (IOException ioe) {
+				throw new IllegalStateException("Could not write chunk " + lo, ioe);
+			}
+			return new Summary(min, max, checksum);
+		}
+	}
+
+	// appends the values as lines of LINE_WIDTH characters, right-justified
+	private static void encode(int[] a, int count, ByteBuffer buffer) {
+		byte[] line = new byte[LINE_WIDTH];
+		line[LINE_WIDTH - 1] = '\n';
+		for (int i = 0; i < count; i++) {
+			int value = a[i];
+			int magnitude = Math.abs(value);
+			int p = LINE_WIDTH - 1;
+			do {
+				line[--p] = (byte) ('0' + magnitude % 10);
+				magnitude /= 10;
+			} while (magnitude != 0);
+			if (value < 0) {
+				line[--p] = '-';
+			}
+			while (p > 0) {
+				line[--p] = ' ';
+			}
+			buffer.put(line);
+		}
+	}
+
+	/**
+	 * Writes a file of integers as described in the class comment and prints
+	 * the time it took.
+	 *
+	 * @param args the number of values and the output file, followed by the options
+	 */
+	public static void main(String[] args) {
+		int n = Integer.parseInt(args[0]);
+		Path output = Paths.get(args[1]);
+		Distribution distribution = Distribution.UNIFORM;
+		long seed = DEFAULT_SEED;
+		boolean binary = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int arg = 2; arg < args.length; arg++) {
+			if (arg+1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[arg]);
+			}
+			switch (args[arg]) {
+				case "-distribution": distribution = Distribution.forFlag(args[++arg]); break;
+				case "-seed":         seed = Long.parseLong(args[++arg]); break;
+				case "-format":
+					String format = args[++arg];
+					if (!format.equals("text") && !format.equals("binary")) {
+						throw new IllegalArgumentException("Unknown format " + format);
+					}
+					binary = format.equals("binary");
+					break;
+				case "-threads":      threads = Integer.parseInt(args[++arg]); break;
+				default: throw new IllegalArgumentException("Unknown option " + args[arg]);
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		Stopwatch timer = new Stopwatch();
+		write(distribution, n, seed, output, binary, pool);
+		pool.shutdown();
+		System.out.println(n + " ints (" + distribution.flag() + ", seed " + seed + ") in " + timer.elapsedTime() + " seconds");
+	}
+}
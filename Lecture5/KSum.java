@@ -0,0 +1,307 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/******************************************************************************
+ *  Compilation:  javac KSum.java
+ *  Execution:    java KSum input.txt k target [maxTuples]
+ *  Dependencies: ThreeSumEngine.java LongCountMap.java IntFileReader.java Stopwatch.java
+ *
+ *  Counts the k-tuples of indices i1 < i2 < ... < ik such that
+ *  a[i1] + a[i2] + ... + a[ik] == target, for any k >= 1 and any target.
+ *
+ *    k = 1      one scan                                ~ n
+ *    k = 2, 3   sort + two pointers                     ~ n^(k-1)
+ *    k = 4      meet in the middle with a pair table    ~ n^2 (expected)
+ *    k > 4      fix the first index, recurse            ~ n^(k-2)
+ *
+ *  All sums are computed in long arithmetic, so they never overflow, and
+ *  the counts are returned as longs.
+ *
+ *  % java KSum 1Kints.txt 3 0
+ *  70 tuples in 0.014957586 seconds
+ *
+ *  % java KSum 1Kints.txt 4 0
+ *  13654 tuples in 0.15963601 seconds
+ *
+ *  % java KSum 1Kints.txt 2 0 3
+ *  1 tuples in 0.001719013 seconds
+ *  [6, 13]
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code KSum} class provides static methods for counting and for
+ *  iterating over the k-tuples of indices of an array whose values add up
+ *  to a given target.
+ *  <p>
+ *  None of the methods modify the argument array. The iterator produces the
+ *  tuples one at a time, so it uses memory proportional to n no matter how
+ *  many tuples there are.
+ */
+public class KSum {
+
+	// Do not instantiate.
+	private KSum() { }
+
+	/**
+	 * Returns the number of k-tuples of indices {@code i1 < i2 < ... < ik}
+	 * such that {@code a[i1] + ... + a[ik] == target}.
+	 *
+	 * @param  a the array of integers
+	 * @param  k the number of elements in each tuple
+	 * @param  target the sum
+	 * @return the number of k-tuples with the given sum
+	 * @throws IllegalArgumentException if {@code k < 1}
+	 */
+	public static long count(int[] a, int k, long target) {
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be at least 1: " + k);
+		}
+		if (k > a.length) {
+			return 0;
+		}
+		switch (k) {
+			case 1:  return countOnes(a, target);
+			case 2:  return countTwos(ThreeSumEngine.sortedCopy(a), target);
+			case 3:  return countThrees(ThreeSumEngine.sortedCopy(a), target);
+			default: return countFours(a, 0, k, target, new LongCountMap());
+		}
+	}
+
+	private static long countOnes(int[] a, long target) {
+		long count = 0;
+		for (int x : a) {
+			if (x == target) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// b is sorted
+	private static long countTwos(int[] b, long target) {
+		return ThreeSumEngine.countPairs(b, 0, b.length - 1, target);
+	}
+
+	// b is sorted
+	private static long countThrees(int[] b, long target) {
+		long count = 0;
+		for (int i = 0; i < b.length - 2; i++) {
+			count += ThreeSumEngine.countPairs(b, i+1, b.length - 1, target - b[i]);
+		}
+		return count;
+	}
+
+	// k-tuples (k >= 4) of indices in a[from..n-1] with the given sum; every
+	// branch of the recursion reuses the one pair table, which starts small and
+	// grows only as far as the distinct pair sums of the largest branch need
+	private static long countFours(int[] a, int from, int k, long target, LongCountMap pairs) {
+		int n = a.length;
+		if (k > 4) {
+			long count = 0;
+			for (int i = from; i <= n - k; i++) {
+				count += countFours(a, i+1, k-1, target - a[i], pairs);
+			}
+			return count;
+		}
+		// meet in the middle: before examining the pairs (c, d) with c < d,
+		// the table holds the sums of all pairs (i, j) with from <= i < j < c
+		pairs.clear();
+		long count = 0;
+		for (int c = from + 2; c < n - 1; c++) {
+			int j = c - 1;
+			for (int i = from; i < j; i++) {
+				pairs.increment((long) a[i] + a[j]);
+			}
+			long rest = target - a[c];
+			for (int d = c + 1; d < n; d++) {
+				count += pairs.get(rest - a[d]);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the k-tuples of indices {@code i1 < i2 < ... < ik} such that
+	 * {@code a[i1] + ... + a[ik] == target}. Each call to {@code iterator()}
+	 * takes a snapshot of {@code a}; the tuples are computed as they are
+	 * requested, and each one is returned as a new array in increasing order.
+	 *
+	 * @param  a the array of integers
+	 * @param  k the number of elements in each tuple
+	 * @param  target the sum
+	 * @return the k-tuples with the given sum
+	 * @throws IllegalArgumentException if {@code k < 1}
+	 */
+	public static Iterable<int[]> tuples(int[] a, int k, long target) {
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be at least 1: " + k);
+		}
+		return () -> new TupleIterator(a, k, target);
+	}
+
+	// Enumerates the tuples over positions in the sorted order of the values:
+	// nested loops over the first k-2 positions, then two pointers for the last two.
+	private static class TupleIterator implements Iterator<int[]> {
+		private final int n, k;
+		private final long target;
+		private final int[] index;    // index[p] is the original index of the p-th smallest value
+		private final int[] value;    // value[p] is the p-th smallest value
+		private final int[] pos;      // the positions of the current tuple
+		private long rest;            // target minus the values at the first k-2 positions
+		private int x, hi;            // two-pointer state for the last two positions
+		private int y, runLo;         // pos[k-1] runs down from y to runLo for the current x
+		private boolean started;      // true once the first prefix is set
+		private boolean ready;        // true if pos holds a tuple not yet returned
+		private boolean done;
+
+		TupleIterator(int[] a, int k, long target) {
+			this.n = a.length;
+			this.k = k;
+			this.target = target;
+			long[] keys = new long[n];
+			for (int i = 0; i < n; i++) {
+				keys[i] = (long) a[i] << 32 | i;
+			}
+			Arrays.sort(keys);
+			index = new int[n];
+			value = new int[n];
+			for (int p = 0; p < n; p++) {
+				index[p] = (int) keys[p];
+				value[p] = (int) (keys[p] >> 32);
+			}
+			pos = new int[k];
+			done = k > n;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (!ready && !done) {
+				ready = advance();
+				done = !ready;
+			}
+			return ready;
+		}
+
+		@Override
+		public int[] next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			ready = false;
+			int[] tuple = new int[k];
+			for (int i = 0; i < k; i++) {
+				tuple[i] = index[pos[i]];
+			}
+			Arrays.sort(tuple);
+			return tuple;
+		}
+
+		private boolean advance() {
+			if (k == 1) {
+				for (int p = started ? pos[0] + 1 : 0; p < n; p++) {
+					if (value[p] == target) {
+						started = true;
+						pos[0] = p;
+						return true;
+					}
+				}
+				return false;
+			}
+			while (true) {
+				if (started && nextPair()) {
+					return true;
+				}
+				if (!nextPrefix()) {
+					return false;
+				}
+			}
+		}
+
+		// moves the first k-2 positions to the next combination and resets the pair state
+		private boolean nextPrefix() {
+			int m = k - 2;
+			if (!started) {
+				started = true;
+				for (int i = 0; i < m; i++) {
+					pos[i] = i;
+				}
+			} else {
+				int level = m - 1;
+				// pos[level] can go up to n - k + level, leaving room for the later positions
+				while (level >= 0 && pos[level] == n - k + level) {
+					level--;
+				}
+				if (level < 0) {
+					return false;
+				}
+				pos[level]++;
+				for (int i = level + 1; i < m; i++) {
+					pos[i] = pos[i-1] + 1;
+				}
+			}
+			rest = target;
+			for (int i = 0; i < m; i++) {
+				rest -= value[pos[i]];
+			}
+			x = m == 0 ? -1 : pos[m-1];
+			hi = n - 1;
+			y = -1;
+			runLo = 0;
+			return true;
+		}
+
+		// sets the last two positions to the next pair x < y after the prefix with value sum rest
+		private boolean nextPair() {
+			while (true) {
+				if (y >= runLo) {
+					pos[k-2] = x;
+					pos[k-1] = y--;
+					return true;
+				}
+				x++;
+				if (x >= n - 1) {
+					return false;
+				}
+				long need = rest - value[x];
+				while (hi > x && value[hi] > need) {
+					hi--;
+				}
+				if (hi <= x) {
+					return false; // no y > x is small enough, now or for any larger x
+				}
+				if (value[hi] == need) {
+					y = hi;
+					runLo = hi;
+					while (runLo - 1 > x && value[runLo - 1] == need) {
+						runLo--;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads in a sequence of integers from a file and prints the number of
+	 * k-tuples with the given sum and the time to count them, followed by
+	 * at most {@code maxTuples} of those tuples (none by default).
+	 *
+	 * @param args the file name, k, the target and optionally maxTuples
+	 */
+	public static void main(String[] args) {
+		int[] a = IntFileReader.readInts(args[0]);
+		int k = Integer.parseInt(args[1]);
+		long target = Long.parseLong(args[2]);
+		int maxTuples = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		Stopwatch timer = new Stopwatch();
+		long count = count(a, k, target);
+		System.out.println(count + " tuples in " + timer.elapsedTime() + " seconds");
+		for (int[] tuple : tuples(a, k, target)) {
+			if (maxTuples-- <= 0) {
+				break;
+			}
+			System.out.println(Arrays.toString(tuple));
+		}
+	}
+}
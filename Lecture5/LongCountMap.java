@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+/******************************************************************************
+ *  Compilation:  javac LongCountMap.java
+ *  Dependencies: none
+ *
+ *  A multiset of long keys backed by an open-addressing hash table with
+ *  linear probing. Keys and counts live in parallel primitive arrays, so
+ *  lookups and updates never box and never allocate (except on resize).
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code LongCountMap} class maps {@code long} keys to {@code long}
+ *  multiplicities. It is the primitive counterpart of a
+ *  {@code HashMap<Long, Long>} used as a counter.
+ *  <p>
+ *  The table doubles when it becomes half full; keys are never removed one
+ *  at a time, but {@link #clear()} empties the map and keeps its capacity,
+ *  so one map can be reused for many rounds of counting.
+ */
+public class LongCountMap {
+
+	private long[] keys;     // keys[slot] is the key stored in slot
+	private long[] counts;   // counts[slot] is the multiplicity of keys[slot]
+	private boolean[] used;  // used[slot] is true if slot holds a key
+	private int size;        // number of distinct keys
+
+	/**
+	 * Initializes an empty map with room for {@code expected} keys
+	 * before the first resize.
+	 *
+	 * @param expected the expected number of distinct keys
+	 */
+	public LongCountMap(int expected) {
+		int capacity = 16;
+		while (capacity < 2 * (long) expected) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Initializes an empty map.
+	 */
+	public LongCountMap() {
+		this(8);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		counts = new long[capacity];
+		used = new boolean[capacity];
+		size = 0;
+	}
+
+	// 64-bit finalizer from MurmurHash3; spreads nearby keys across the table
+	private static long mix(long x) {
+		x ^= x >>> 33;
+		x *= 0xff51afd7ed558ccdL;
+		x ^= x >>> 33;
+		x *= 0xc4ceb9fe1a85ec53L;
+		x ^= x >>> 33;
+		return x;
+	}
+
+	private int slot(long key) {
+		int mask = keys.length - 1;
+		int i = (int) mix(key) & mask;
+		while (used[i] && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the multiplicity of {@code key}, or 0 if it was never added.
+	 *
+	 * @param key the key
+	 * @return the multiplicity of {@code key}
+	 */
+	public long get(long key) {
+		int i = slot(key);
+		return used[i] ? counts[i] : 0;
+	}
+
+	/**
+	 * Adds {@code delta} to the multiplicity of {@code key}.
+	 *
+	 * @param key the key
+	 * @param delta the amount to add
+	 */
+	public void add(long key, long delta) {
+		int i = slot(key);
+		if (!used[i]) {
+			if (2 * (size + 1) > keys.length) {
+				resize(2 * keys.length);
+				i = slot(key);
+			}
+			used[i] = true;
+			keys[i] = key;
+			counts[i] = 0;
+			size++;
+		}
+		counts[i] += delta;
+	}
+
+	/**
+	 * Adds one to the multiplicity of {@code key}.
+	 *
+	 * @param key the key
+	 */
+	public void increment(long key) {
+		add(key, 1);
+	}
+
+	/**
+	 * Returns the number of distinct keys in this map.
+	 *
+	 * @return the number of distinct keys in this map
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all keys from this map. The table keeps its capacity, so a
+	 * map that is refilled to the same size does not resize again.
+	 */
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		long[] oldCounts = counts;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int j = slot(oldKeys[i]);
+				used[j] = true;
+				keys[j] = oldKeys[i];
+				counts[j] = oldCounts[i];
+				size++;
+			}
+		}
+	}
+}
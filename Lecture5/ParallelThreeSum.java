@@ -0,0 +1,212 @@
+import java.nio.IntBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/******************************************************************************
+ *  Compilation:  javac ParallelThreeSum.java
+ *  Dependencies: none
+ *
+ *  Counts the triples that sum to exactly 0 with the triply nested loop of
+ *  ThreeSum.count, splitting the outer i loop into fork/join tasks.
+ *
+ *  Row i of the loop examines (n-1-i choose 2) pairs (j, k), so the work
+ *  shrinks quadratically as i grows. Ranges of i are therefore split at the
+ *  point that halves the number of pairs, not at the midpoint of the range.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code ParallelThreeSum} class provides static methods for counting
+ *  the number of triples in an array of integers that sum to 0 on a
+ *  {@link ForkJoinPool}. Each task keeps its own counter; the counters are
+ *  summed as the tasks are joined.
+ *  <p>
+ *  The arithmetic is exactly that of {@link ThreeSum#count(int[])}, so the
+ *  counts agree with it on every input.
+ */
+public class ParallelThreeSum {
+
+	// a task never splits below this many (j, k) pairs
+	private static final double MIN_TASK_WORK = 1 << 20;
+
+	// aim for this many tasks per worker thread so idle workers can steal
+	private static final int TASKS_PER_THREAD = 16;
+
+	// Do not instantiate.
+	private ParallelThreeSum() { }
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k}
+	 * such that {@code a[i] + a[j] + a[k] == 0}. Runs in the current
+	 * fork/join pool if called from one, and in the common pool otherwise.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 */
+	public static long count(int[] a) {
+		if (ForkJoinTask.inForkJoinPool()) {
+			return newTask(a, ForkJoinTask.getPool().getParallelism()).invoke();
+		}
+		return count(a, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k}
+	 * such that {@code a[i] + a[j] + a[k] == 0}, using the given pool.
+	 *
+	 * @param  a the array of integers
+	 * @param  pool the pool that runs the tasks
+	 * @return the number of triples that sum to 0
+	 */
+	public static long count(int[] a, ForkJoinPool pool) {
+		return pool.invoke(newTask(a, pool.getParallelism()));
+	}
+
+	private static CountTask newTask(int[] a, int parallelism) {
+		int n = a.length;
+		double grain = Math.max(MIN_TASK_WORK, work(n, 0, n) / ((double) parallelism * TASKS_PER_THREAD));
+		return new CountTask(a, 0, n, grain);
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code lo <= i < hi}
+	 * and {@code i < j < k} such that {@code a[i] + a[j] + a[k] == 0}.
+	 *
+	 * @param  a the array of integers
+	 * @param  lo the first row (inclusive)
+	 * @param  hi the last row (exclusive)
+	 * @return the number of such triples
+	 */
+	static long countRows(int[] a, int lo, int hi) {
+		int n = a.length;
+		long count = 0;
+		for (int i = lo; i < hi; i++) {
+			int ai = a[i];
+			for (int j = i+1; j < n; j++) {
+				int sum = ai + a[j];
+				for (int k = j+1; k < n; k++) {
+					if (sum + a[k] == 0) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code lo <= i < hi}
+	 * and {@code i < j < k} such that {@code a.get(i) + a.get(j) + a.get(k) == 0},
+	 * reading the values straight from the buffer, which may be a mapped file.
+	 *
+	 * @param  a the buffer of integers, from index 0 to its limit
+	 * @param  lo the first row (inclusive)
+	 * @param  hi the last row (exclusive)
+	 * @return the number of such triples
+	 */
+	static long countRows(IntBuffer a, int lo, int hi) {
+		int n = a.limit();
+		long count = 0;
+		for (int i = lo; i < hi; i++) {
+			int ai = a.get(i);
+			for (int j = i+1; j < n; j++) {
+				int sum = ai + a.get(j);
+				for (int k = j+1; k < n; k++) {
+					if (sum + a.get(k) == 0) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of (j, k) pairs examined by rows {@code lo..hi-1}
+	 * of an array of length {@code n}, that is
+	 * (n-lo choose 3) - (n-hi choose 3).
+	 */
+	static double work(int n, int lo, int hi) {
+		return choose3(n - lo) - choose3(n - hi);
+	}
+
+	private static double choose3(double m) {
+		return m * (m-1) * (m-2) / 6;
+	}
+
+	/**
+	 * Returns the row {@code mid}, {@code lo < mid < hi}, that splits the
+	 * work of rows {@code lo..hi-1} most evenly. Requires {@code hi - lo >= 2}.
+	 */
+	static int split(int n, int lo, int hi) {
+		double half = work(n, lo, hi) / 2;
+		int left = lo + 1, right = hi - 1;
+		// smallest mid with work(lo, mid) >= half
+		while (left < right) {
+			int mid = (left + right) >>> 1;
+			if (work(n, lo, mid) < half) {
+				left = mid + 1;
+			} else {
+				right = mid;
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * Returns the boundaries of {@code parts} consecutive ranges of rows of an
+	 * array of length {@code n} with about the same work each: range p is
+	 * rows {@code bounds[p]..bounds[p+1]-1}, and {@code bounds[parts] == n}.
+	 * Ranges may be empty when there are more parts than rows.
+	 */
+	static int[] partition(int n, int parts) {
+		int[] bounds = new int[parts + 1];
+		double total = work(n, 0, n);
+		for (int p = 1; p < parts; p++) {
+			double target = total * p / parts;
+			int left = bounds[p-1], right = n;
+			// smallest row with work(0, row) >= target
+			while (left < right) {
+				int mid = (left + right) >>> 1;
+				if (work(n, 0, mid) < target) {
+					left = mid + 1;
+				} else {
+					right = mid;
+				}
+			}
+			bounds[p] = left;
+		}
+		bounds[parts] = n;
+		return bounds;
+	}
+
+	// counts rows lo..hi-1, splitting while the work exceeds the grain size
+	private static class CountTask extends RecursiveTask<Long> {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] a;
+		private final int lo, hi;
+		private final double grain;
+
+		CountTask(int[] a, int lo, int hi, double grain) {
+			this.a = a;
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+		}
+
+		@Override
+		protected Long compute() {
+			if (hi - lo < 2 || work(a.length, lo, hi) <= grain) {
+				return countRows(a, lo, hi);
+			}
+			int mid = split(a.length, lo, hi);
+			CountTask left = new CountTask(a, lo, mid, grain);
+			CountTask right = new CountTask(a, mid, hi, grain);
+			left.fork();
+			long count = right.compute();
+			return count + left.join();
+		}
+	}
+}
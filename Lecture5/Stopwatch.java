@@ -1,7 +1,17 @@
 //Adapted from https://algs4.cs.princeton.edu/code/edu/princeton/cs/algs4/Stopwatch.java
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
 /****************************************************************************** *
  * 
- *  A utility class to measure the running time (wall clock) of a program.
+ *  A utility class to measure the running time (wall clock) of a program,
+ *  together with the CPU time and the bytes allocated by the measuring thread.
+ *
+ *  Wall-clock time comes from System.nanoTime(); CPU time and allocated bytes
+ *  come from the platform ThreadMXBean, when the JVM supports them.
+ *  Named laps record all three at a point in time into arrays that are
+ *  allocated up front, so recording a lap allocates nothing.
  *
  ******************************************************************************/
 
@@ -9,6 +19,11 @@
  *  The {@code Stopwatch} data type is for measuring
  *  the time that elapses between the start and end of a
  *  programming task (wall-clock time).
+ *  <p>
+ *  It also measures the CPU time used and the bytes allocated by the thread
+ *  that created it, and records named laps. CPU time and allocated bytes
+ *  are those of the calling thread, so a stopwatch should be read from the
+ *  thread that created it.
  *
  *  @author Robert Sedgewick
  *  @author Kevin Wayne
@@ -17,24 +32,196 @@
 
 public class Stopwatch { 
 
-    private final long start;
+    private static final int DEFAULT_MAX_LAPS = 64;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // the HotSpot extension that reports allocated bytes, or null if unavailable
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+        THREADS instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()
+            ? (com.sun.management.ThreadMXBean) THREADS : null;
+
+    private final long start;            // System.nanoTime() at creation
+    private final long startCpu;         // thread CPU time at creation, or -1
+    private final long startAllocated;   // bytes allocated by the thread at creation, or -1
+
+    private final String[] lapNames;     // lapNames[i] is the name of lap i
+    private final long[] lapEnd;         // wall-clock time at the end of lap i
+    private final long[] lapCpu;         // thread CPU time at the end of lap i
+    private final long[] lapAllocated;   // bytes allocated by the thread at the end of lap i
+    private int laps;                    // number of laps recorded
 
     /**
      * Initializes a new stopwatch.
      */
     public Stopwatch() {
-        start = System.currentTimeMillis();
+        this(DEFAULT_MAX_LAPS);
     } 
 
+    /**
+     * Initializes a new stopwatch that can record up to {@code maxLaps} laps.
+     *
+     * @param maxLaps the maximum number of laps
+     */
+    public Stopwatch(int maxLaps) {
+        lapNames = new String[maxLaps];
+        lapEnd = new long[maxLaps];
+        lapCpu = new long[maxLaps];
+        lapAllocated = new long[maxLaps];
+        startAllocated = allocatedNow();
+        startCpu = cpuNow();
+        start = System.nanoTime();
+    }
+
+    private static long cpuNow() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedNow() {
+        return ALLOCATIONS != null ? ALLOCATIONS.getCurrentThreadAllocatedBytes() : -1;
+    }
 
     /**
-     * Returns the elapsed CPU time (in seconds) since the stopwatch was created.
+     * Returns the elapsed wall-clock time (in seconds) since the stopwatch was created.
      *
-     * @return elapsed CPU time (in seconds) since the stopwatch was created
+     * @return elapsed wall-clock time (in seconds) since the stopwatch was created
      */
     public double elapsedTime() {
-        long now = System.currentTimeMillis();
-        return (now - start) / 1000.0;
+        return elapsedNanos() / 1e9;
+    }
+
+    /**
+     * Returns the elapsed wall-clock time (in nanoseconds) since the stopwatch was created.
+     *
+     * @return elapsed wall-clock time (in nanoseconds) since the stopwatch was created
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the CPU time (in nanoseconds) used by the current thread since
+     * the stopwatch was created, or -1 if the JVM does not measure it.
+     *
+     * @return CPU time (in nanoseconds) since the stopwatch was created, or -1
+     */
+    public long cpuNanos() {
+        return startCpu < 0 ? -1 : cpuNow() - startCpu;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread since
+     * the stopwatch was created, or -1 if the JVM does not measure it.
+     *
+     * @return bytes allocated since the stopwatch was created, or -1
+     */
+    public long allocatedBytes() {
+        return startAllocated < 0 ? -1 : allocatedNow() - startAllocated;
+    }
+
+    /**
+     * Ends a lap with the given name at the current point in time. The next
+     * lap starts now. Recording a lap does not allocate.
+     *
+     * @param name the name of the lap
+     * @throws IllegalStateException if the maximum number of laps has been recorded
+     */
+    public void lap(String name) {
+        if (laps == lapNames.length) {
+            throw new IllegalStateException("Stopwatch holds at most " + lapNames.length + " laps");
+        }
+        long now = System.nanoTime();
+        lapCpu[laps] = startCpu < 0 ? -1 : cpuNow();
+        lapAllocated[laps] = startAllocated < 0 ? -1 : allocatedNow();
+        lapEnd[laps] = now;
+        lapNames[laps++] = name;
+    }
+
+    /**
+     * Returns the number of laps recorded.
+     *
+     * @return the number of laps recorded
+     */
+    public int laps() {
+        return laps;
+    }
+
+    /**
+     * Returns the name of lap {@code i}.
+     *
+     * @param i the index of the lap
+     * @return the name of lap {@code i}
+     */
+    public String lapName(int i) {
+        checkLap(i);
+        return lapNames[i];
+    }
+
+    /**
+     * Returns the wall-clock time (in nanoseconds) of lap {@code i}.
+     *
+     * @param i the index of the lap
+     * @return the wall-clock time (in nanoseconds) of lap {@code i}
+     */
+    public long lapNanos(int i) {
+        checkLap(i);
+        return lapEnd[i] - (i == 0 ? start : lapEnd[i-1]);
+    }
+
+    /**
+     * Returns the CPU time (in nanoseconds) of lap {@code i}, or -1 if the
+     * JVM does not measure it.
+     *
+     * @param i the index of the lap
+     * @return the CPU time (in nanoseconds) of lap {@code i}, or -1
+     */
+    public long lapCpuNanos(int i) {
+        checkLap(i);
+        return startCpu < 0 ? -1 : lapCpu[i] - (i == 0 ? startCpu : lapCpu[i-1]);
+    }
+
+    /**
+     * Returns the number of bytes allocated during lap {@code i}, or -1 if
+     * the JVM does not measure it.
+     *
+     * @param i the index of the lap
+     * @return the number of bytes allocated during lap {@code i}, or -1
+     */
+    public long lapAllocatedBytes(int i) {
+        checkLap(i);
+        return startAllocated < 0 ? -1 : lapAllocated[i] - (i == 0 ? startAllocated : lapAllocated[i-1]);
+    }
+
+    private void checkLap(int i) {
+        if (i < 0 || i >= laps) {
+            throw new IndexOutOfBoundsException("Lap " + i + " of " + laps);
+        }
+    }
+
+    /**
+     * Returns a table of the wall-clock time, CPU time and allocated bytes
+     * of each lap and of the total since the stopwatch was created.
+     *
+     * @return a summary of the measurements
+     */
+    public String summary() {
+        long wall = elapsedNanos();
+        long cpu = cpuNanos();
+        long allocated = allocatedBytes();
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%-20s %12s %12s %14s%n", "lap", "wall (ms)", "cpu (ms)", "allocated (B)"));
+        for (int i = 0; i < laps; i++) {
+            appendRow(summary, lapNames[i], lapNanos(i), lapCpuNanos(i), lapAllocatedBytes(i));
+        }
+        appendRow(summary, "total", wall, cpu, allocated);
+        return summary.toString();
+    }
+
+    private static void appendRow(StringBuilder summary, String name, long wall, long cpu, long allocated) {
+        summary.append(String.format("%-20s %12.3f %12s %14s%n", name, wall / 1e6,
+            cpu < 0 ? "n/a" : String.format("%.3f", cpu / 1e6),
+            allocated < 0 ? "n/a" : Long.toString(allocated)));
     }
 }
 
@@ -1,13 +1,19 @@
 //Adapted from https://algs4.cs.princeton.edu/code/edu/princeton/cs/algs4/ThreeSum.java
 
-import java.io.File;
-import java.io.IOException;
-import java.util.Scanner;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /******************************************************************************
  *  Compilation:  javac ThreeSum.java
- *  Execution:    java ThreeSum input.txt sizeOfInput
- *  Dependencies: Stopwatch.java
+ *  Execution:    java ThreeSum input.txt [-algorithm name] [-threads p]
+ *                                  [-checkpoint file] [-estimate relErr]
+ *  Dependencies: Stopwatch.java ThreeSumEngine.java ParallelThreeSum.java
+ *                IntFileReader.java ThreeSumCheckpoint.java LongCountMap.java
+ *                TextTripleSink.java TripleConsumer.java
  *  Data files:   https://algs4.cs.princeton.edu/14analysis/1Kints.txt
  *                https://algs4.cs.princeton.edu/14analysis/2Kints.txt
  *                https://algs4.cs.princeton.edu/14analysis/4Kints.txt
@@ -20,15 +26,39 @@ import java.util.Scanner;
  *  and counts the number of triples that sum to exactly 0
  *  (ignoring integer overflow).
  *
- *  % java ThreeSum 1Kints.txt  1000
+ *  % java ThreeSum 1Kints.txt
  *  70
  *
- *  % java ThreeSum 2Kints.txt  2000
+ *  % java ThreeSum 2Kints.txt
  *  528
  *
- *  % java ThreeSum 4Kints.txt  4000
+ *  % java ThreeSum 4Kints.txt
  *  4039
  *
+ *  % java ThreeSum 32Kints.txt -algorithm twopointer
+ *  2052358
+ *
+ *  The -algorithm flag selects one of the counting algorithms of
+ *  ThreeSumEngine (brute, binary, twopointer, hash, distinct, parallel, vector,
+ *  tiled, fft, auto); the default is the brute-force count below. The
+ *  -threads flag sets the number of worker threads of the fork/join pool
+ *  the count runs in.
+ *
+ *  % java ThreeSum 16Kints.txt -algorithm parallel -threads 32
+ *  255181
+ *
+ *  The -checkpoint flag runs the parallel brute force, saving its progress
+ *  to the given file; if the file exists, the count resumes from it, and
+ *  once the count is complete the file is deleted (see ThreeSumCheckpoint).
+ *  It cannot be combined with the other algorithms.
+ *
+ *  The -estimate flag prints an estimate of the count, within the given
+ *  relative error with 95% confidence, in about linear time (see estimate).
+ *
+ *  % java ThreeSum 32Kints.txt -estimate 0.05
+ *  elapsed time = 0.074025484
+ *  2090844 in [1986309, 2195378] from 123904 samples
+ *
  ******************************************************************************/
 /**
  *  The {@code ThreeSum} class provides static methods for counting
@@ -50,21 +80,39 @@ public class ThreeSum {
 	/**
 	 * Prints to standard output the (i, j, k) with {@code i < j < k}
 	 * such that {@code + a[i] + a[j] + a[k] == 0}.
+	 * The lines are formatted into a buffer and written in large chunks.
 	 *
 	 * @param a the array of integers
 	 */
 	public static void printAll(int[] a) {
+		System.out.flush();
+		TextTripleSink sink = new TextTripleSink(Channels.newChannel(System.out),
+				TextTripleSink.DEFAULT_BUFFER_SIZE, false);
+		forEach(a, sink);
+		sink.flush();
+		System.out.flush();
+	} 
+
+	/**
+	 * Passes to the consumer the values {@code a[i], a[j], a[k]} of every
+	 * (i, j, k) with {@code i < j < k} such that {@code a[i] + a[j] + a[k] == 0},
+	 * in the order of the triply nested loop.
+	 *
+	 * @param a the array of integers
+	 * @param consumer the consumer of the triples
+	 */
+	public static void forEach(int[] a, TripleConsumer consumer) {
 		int n = a.length;
 		for (int i = 0; i < n; i++) {
 			for (int j = i+1; j < n; j++) {
 				for (int k = j+1; k < n; k++) {
 					if (a[i] + a[j] + a[k] == 0) {
-						System.out.println(a[i] + " " + a[j]  + " " + a[k]);
+						consumer.accept(a[i], a[j], a[k]);
 					}
 				}
 			}
 		}
-	} 
+	}
 
 	/**
 	 * Returns the number of triples (i, j, k) with {@code i < j < k}
@@ -89,32 +137,235 @@ public class ThreeSum {
 		return count;
 	} 
 
+	/**
+	 * Returns an estimate of {@link #count(int[])} with a confidence interval.
+	 * <p>
+	 * Each sample picks a pair of distinct indices (i, j) uniformly at random
+	 * and looks up in a hash table of the values how many k other than i and j
+	 * complete it, that is have {@code a[i] + a[j] + a[k] == 0}. Every triple
+	 * is completed from 3 of its pairs, so the count is (n choose 2) / 3 times
+	 * the mean of the samples. Samples are drawn until the half-width of the
+	 * normal confidence interval of the mean is at most {@code relErr} times
+	 * the mean, or until a budget of about 4n samples is spent; in the latter
+	 * case the interval returned is wider than requested. Building the table
+	 * and drawing the samples take time and space proportional to n.
+	 *
+	 * @param  a the array of integers
+	 * @param  relErr the requested relative error, such as 0.05
+	 * @param  confidence the probability that the interval holds the count, such as 0.95
+	 * @return the estimate and its confidence interval
+	 * @throws IllegalArgumentException unless {@code relErr > 0} and
+	 *         {@code 0 < confidence < 1}
+	 */
+	public static Estimate estimate(int[] a, double relErr, double confidence) {
+		if (!(relErr > 0)) {
+			throw new IllegalArgumentException("relErr must be positive: " + relErr);
+		}
+		if (!(confidence > 0 && confidence < 1)) {
+			throw new IllegalArgumentException("confidence must be in (0, 1): " + confidence);
+		}
+		int n = a.length;
+		if (n < 3) {
+			return new Estimate(0, 0, 0, 0);
+		}
+		LongCountMap values = new LongCountMap(n);
+		for (int x : a) {
+			values.increment(x);
+		}
+
+		double z = normalQuantile(0.5 + confidence / 2);
+		double pairs = (double) n * (n-1) / 2;
+		long maxSamples = Math.max(MIN_SAMPLES, 4L * n);
+		SplittableRandom random = new SplittableRandom();
+		long samples = 0;
+		double mean = 0, m2 = 0;  // Welford's running mean and sum of squared deviations
+		while (samples < maxSamples) {
+			int i = random.nextInt(n);
+			int j = random.nextInt(n-1);
+			if (j >= i) {
+				j++;
+			}
+			int target = -(a[i] + a[j]);
+			long x = values.get(target);
+			if (a[i] == target) {
+				x--;
+			}
+			if (a[j] == target) {
+				x--;
+			}
+			samples++;
+			double delta = x - mean;
+			mean += delta / samples;
+			m2 += delta * (x - mean);
+			if (samples % MIN_SAMPLES == 0 && mean > 0 && halfWidth(m2, samples, z, confidence) <= relErr * mean) {
+				break;
+			}
+		}
+		double halfWidth = halfWidth(m2, samples, z, confidence);
+		double scale = pairs / 3;
+		return new Estimate(scale * mean, scale * Math.max(0, mean - halfWidth),
+				Math.min(scale * (mean + halfWidth), choose3(n)), samples);
+	}
+
+	// estimate() always draws a multiple of this many samples, and at least this many
+	private static final int MIN_SAMPLES = 1024;
+
+	// half-width of the confidence interval of the mean of the samples; the normal
+	// interval, but never narrower than the bound -ln(1 - confidence) / samples that
+	// holds when no sample completes a triple, since the normal one is then empty
+	private static double halfWidth(double m2, long samples, double z, double confidence) {
+		return Math.max(z * Math.sqrt(m2 / (samples-1) / samples), -Math.log(1 - confidence) / samples);
+	}
+
+	private static double choose3(double m) {
+		return m * (m-1) * (m-2) / 6;
+	}
+
+	// inverse of the standard normal distribution function, by the rational
+	// approximation of P. J. Acklam (relative error below 1.15e-9)
+	private static double normalQuantile(double p) {
+		final double[] a = { -3.969683028665376e+01,  2.209460984245205e+02, -2.759285104469687e+02,
+		                      1.383577518672690e+02, -3.066479806614716e+01,  2.506628277459239e+00 };
+		final double[] b = { -5.447609879822406e+01,  1.615858368580409e+02, -1.556989798598866e+02,
+		                      6.680131188771972e+01, -1.328068155288572e+01 };
+		final double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+		                     -2.549732539343734e+00,  4.374664141464968e+00,  2.938163982698783e+00 };
+		final double[] d = {  7.784695709041462e-03,  3.224671290700398e-01,  2.445134137142996e+00,
+		                      3.754408661907416e+00 };
+		if (p < 0.02425) {
+			double q = Math.sqrt(-2 * Math.log(p));
+			return (((((c[0]*q + c[1])*q + c[2])*q + c[3])*q + c[4])*q + c[5])
+					/ ((((d[0]*q + d[1])*q + d[2])*q + d[3])*q + 1);
+		}
+		if (p > 1 - 0.02425) {
+			return -normalQuantile(1 - p);
+		}
+		double q = p - 0.5, r = q * q;
+		return (((((a[0]*r + a[1])*r + a[2])*r + a[3])*r + a[4])*r + a[5])*q
+				/ (((((b[0]*r + b[1])*r + b[2])*r + b[3])*r + b[4])*r + 1);
+	}
+
+	/**
+	 * The result of {@link ThreeSum#estimate(int[], double, double)}: an
+	 * estimate of the number of triples that sum to 0, a confidence interval
+	 * around it, and the number of samples it is based on.
+	 */
+	public static final class Estimate {
+		private final double estimate, lower, upper;
+		private final long samples;
+
+		private Estimate(double estimate, double lower, double upper, long samples) {
+			this.estimate = estimate;
+			this.lower = lower;
+			this.upper = upper;
+			this.samples = samples;
+		}
+
+		/**
+		 * Returns the estimated number of triples that sum to 0.
+		 *
+		 * @return the estimated number of triples that sum to 0
+		 */
+		public double estimate() {
+			return estimate;
+		}
+
+		/**
+		 * Returns the lower end of the confidence interval.
+		 *
+		 * @return the lower end of the confidence interval
+		 */
+		public double lower() {
+			return lower;
+		}
+
+		/**
+		 * Returns the upper end of the confidence interval.
+		 *
+		 * @return the upper end of the confidence interval
+		 */
+		public double upper() {
+			return upper;
+		}
+
+		/**
+		 * Returns the number of pairs sampled.
+		 *
+		 * @return the number of pairs sampled
+		 */
+		public long samples() {
+			return samples;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%.0f in [%.0f, %.0f] from %d samples", estimate, lower, upper, samples);
+		}
+	}
+
 	/**
 	 * Reads in a sequence of integers from a file, specified as a command-line argument;
 	 * counts the number of triples sum to exactly zero; prints out the time to perform
 	 * the computation.
 	 *
-	 * @param args the command-line arguments that represent the file name and file size (number of lines)
+	 * @param args the command-line arguments that represent the file name,
+	 *             optionally followed by {@code -algorithm name}, {@code -threads p},
+	 *             {@code -checkpoint file} and {@code -estimate relErr}
 	 */
 	public static void main(String[] args)  {
 		//make sure that your file is not in the src folder but one level up
 		String filename = args[0];
-		int fileSize = Integer.parseInt(args[1]);
-		try {
-			Scanner scanner = new Scanner(new File(filename));
-			int intList[] = new int[fileSize];
-			int i=0;
-			while(scanner.hasNextInt()){
-				intList[i++]=scanner.nextInt();
+		ThreeSumEngine.Algorithm algorithm = ThreeSumEngine.Algorithm.BRUTE_FORCE;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Path checkpoint = null;
+		double relErr = 0;
+		int arg = 1;
+		if (arg < args.length && !args[arg].startsWith("-")) {
+			arg++; // the number of lines; no longer needed but still accepted
+		}
+		for (; arg < args.length; arg++) {
+			if (args[arg].equals("-algorithm") && arg+1 < args.length) {
+				algorithm = ThreeSumEngine.Algorithm.forFlag(args[++arg]);
+			} else if (args[arg].equals("-threads") && arg+1 < args.length) {
+				threads = Integer.parseInt(args[++arg]);
+			} else if (args[arg].equals("-checkpoint") && arg+1 < args.length) {
+				checkpoint = Paths.get(args[++arg]);
+			} else if (args[arg].equals("-estimate") && arg+1 < args.length) {
+				relErr = Double.parseDouble(args[++arg]);
+			} else {
+				throw new IllegalArgumentException("Unknown option " + args[arg]);
 			}
+		}
+		if (checkpoint != null && algorithm != ThreeSumEngine.Algorithm.BRUTE_FORCE
+				&& algorithm != ThreeSumEngine.Algorithm.PARALLEL) {
+			throw new IllegalArgumentException("-checkpoint only works with the brute and parallel algorithms");
+		}
+		int[] intList = IntFileReader.readInts(filename);
+		if (relErr > 0) {
 			Stopwatch timer = new Stopwatch();
-			int count = count(intList);
+			Estimate estimate = estimate(intList, relErr, 0.95);
 			System.out.println("elapsed time = " + timer.elapsedTime());
-			System.out.println(count);
+			System.out.println(estimate);
+			return;
 		}
-		catch (IOException ioe) {
-			throw new IllegalArgumentException("Could not open " + filename, ioe);
+		final ThreeSumEngine.Algorithm selected = algorithm;
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		Stopwatch timer = new Stopwatch();
+		long count;
+		if (checkpoint != null) {
+			int done = ThreeSumCheckpoint.chunksDone(checkpoint);
+			if (done > 0) {
+				System.out.println("resuming " + filename + ": " + done + " of "
+						+ ThreeSumCheckpoint.DEFAULT_CHUNKS + " chunks done");
+			}
+			count = ThreeSumCheckpoint.count(intList, checkpoint, pool,
+					ThreeSumCheckpoint.DEFAULT_CHUNKS, ThreeSumCheckpoint.DEFAULT_INTERVAL);
+		} else {
+			count = pool.submit(() -> ThreeSumEngine.count(intList, selected)).join();
 		}
+		pool.shutdown();
+		System.out.println("elapsed time = " + timer.elapsedTime());
+		System.out.println(count);
 	} 
 } 
 
@@ -0,0 +1,268 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/******************************************************************************
+ *  Compilation:  javac ThreeSumBenchmark.java
+ *  Execution:    java ThreeSumBenchmark [-algorithms a,b,...] [-forks f]
+ *                                       [-warmup w] [-iterations i] [-time s]
+ *                                       input1.txt input2.txt ...
+ *  Dependencies: ThreeSumEngine.java IntFileReader.java Stopwatch.java
+ *
+ *  A microbenchmark harness for the ThreeSum algorithms, run over every
+ *  combination of algorithm and input file. It follows the JMH recipe but
+ *  needs nothing beyond the JDK, so it runs offline on any machine:
+ *
+ *    - every combination runs in f fresh JVMs (default 2), started with the
+ *      same JVM options and class path, so that the JIT profile of one
+ *      algorithm does not leak into the next; -forks 0 runs in this JVM;
+ *    - each fork runs w warmup iterations (default 3) and then i measured
+ *      iterations (default 5), each lasting at least s seconds (default 1)
+ *      and at least one call;
+ *    - every count is consumed by a blackhole so the JIT cannot drop the call;
+ *    - each iteration reports the average time per call, the throughput,
+ *      and, like the JMH GC profiler, the bytes allocated per call and the
+ *      collections and collection time it caused (allocation is that of the
+ *      calling thread, so it leaves out the pool threads of parallel).
+ *
+ *  The default algorithms are brute (the scalar loop), parallel, twopointer
+ *  (sorted) and hash.
+ *
+ *  % java ThreeSumBenchmark -algorithms twopointer,hash -forks 1 -iterations 2 1Kints.txt 2Kints.txt
+ *  algorithm   input           avgt (s/op)             thrpt (ops/s)          alloc (B/op) gc.count gc.ms
+ *  twopointer  1Kints.txt      0.002760 +- 0.000188    363.195 +- 24.785      4016         0        0
+ *  twopointer  2Kints.txt      0.013931 +- 0.003874     74.667 +- 20.762      8017         0        0
+ *  hash        1Kints.txt      0.005164 +- 0.000147    193.739 +- 5.526       34897        0        0
+ *  hash        2Kints.txt      0.018607 +- 0.000154     53.746 +- 0.445       69682        0        0
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code ThreeSumBenchmark} class provides a client that measures the
+ *  ThreeSum algorithms of {@link ThreeSumEngine} on a set of input files.
+ */
+public class ThreeSumBenchmark {
+
+	// the forked JVM prints one line with this prefix per measured iteration
+	private static final String RESULT = "RESULT";
+
+	// the blackhole; a volatile write the JIT cannot eliminate
+	private static volatile long sink;
+
+	// Do not instantiate.
+	private ThreeSumBenchmark() { }
+
+	private static void consume(long value) {
+		sink ^= value;
+	}
+
+	// one iteration: calls made, and time, allocation and GC activity in total
+	private static final class Iteration {
+		final long calls, nanos, allocated, collections, collectionMillis;
+
+		Iteration(long calls, long nanos, long allocated, long collections, long collectionMillis) {
+			this.calls = calls;
+			this.nanos = nanos;
+			this.allocated = allocated;
+			this.collections = collections;
+			this.collectionMillis = collectionMillis;
+		}
+
+		static Iteration parse(String line) {
+			String[] fields = line.trim().split("\\s+");
+			return new Iteration(Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3]),
+					Long.parseLong(fields[4]), Long.parseLong(fields[5]));
+		}
+
+		@Override
+		public String toString() {
+			return RESULT + " " + calls + " " + nanos + " " + allocated + " " + collections + " " + collectionMillis;
+		}
+	}
+
+	private static long collections() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long collectionMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return millis;
+	}
+
+	// calls the algorithm repeatedly for at least minNanos
+	private static Iteration iterate(ThreeSumEngine.Algorithm algorithm, int[] a, long minNanos) {
+		long collections = collections();
+		long collectionMillis = collectionMillis();
+		Stopwatch timer = new Stopwatch();
+		long calls = 0;
+		do {
+			consume(ThreeSumEngine.count(a, algorithm));
+			calls++;
+		} while (timer.elapsedNanos() < minNanos);
+		long nanos = timer.elapsedNanos();
+		return new Iteration(calls, nanos, timer.allocatedBytes(),
+				collections() - collections, collectionMillis() - collectionMillis);
+	}
+
+	// runs the warmup and the measured iterations in this JVM
+	private static List<Iteration> run(ThreeSumEngine.Algorithm algorithm, String filename,
+			int warmup, int iterations, long minNanos) {
+		int[] a = IntFileReader.readInts(filename);
+		for (int w = 0; w < warmup; w++) {
+			iterate(algorithm, a, minNanos);
+		}
+		List<Iteration> results = new ArrayList<Iteration>();
+		for (int i = 0; i < iterations; i++) {
+			results.add(iterate(algorithm, a, minNanos));
+		}
+		return results;
+	}
+
+	// runs the warmup and the measured iterations in a fresh JVM
+	private static List<Iteration> fork(ThreeSumEngine.Algorithm algorithm, String filename,
+			int warmup, int iterations, long minNanos) {
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ThreeSumBenchmark.class.getName());
+		command.add("-child");
+		command.add(algorithm.flag());
+		command.add(filename);
+		command.add(Integer.toString(warmup));
+		command.add(Integer.toString(iterations));
+		command.add(Long.toString(minNanos));
+		try {
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+			List<Iteration> results = new ArrayList<Iteration>();
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					if (line.startsWith(RESULT)) {
+						results.add(Iteration.parse(line));
+					} else {
+						System.err.println(line);
+					}
+				}
+			}
+			int exit = process.waitFor();
+			if (exit != 0 || results.size() != iterations) {
+				throw new IllegalStateException("Fork for " + algorithm.flag() + " on " + filename + " failed with exit code " + exit);
+			}
+			return results;
+		}
+		catch (IOException ioe) {
+			throw new IllegalStateException("Could not start a fork", ioe);
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a fork", ie);
+		}
+	}
+
+	private static double mean(double[] x) {
+		double sum = 0;
+		for (double v : x) {
+			sum += v;
+		}
+		return sum / x.length;
+	}
+
+	private static double deviation(double[] x) {
+		if (x.length < 2) {
+			return 0;
+		}
+		double mean = mean(x), sum = 0;
+		for (double v : x) {
+			sum += (v - mean) * (v - mean);
+		}
+		return Math.sqrt(sum / (x.length - 1));
+	}
+
+	private static void report(String algorithm, String filename, List<Iteration> results) {
+		int m = results.size();
+		double[] average = new double[m];
+		double[] throughput = new double[m];
+		double allocated = 0, calls = 0, collections = 0, collectionMillis = 0;
+		for (int i = 0; i < m; i++) {
+			Iteration it = results.get(i);
+			average[i] = it.nanos / 1e9 / it.calls;
+			throughput[i] = it.calls / (it.nanos / 1e9);
+			allocated += it.allocated;
+			calls += it.calls;
+			collections += it.collections;
+			collectionMillis += it.collectionMillis;
+		}
+		System.out.printf(Locale.ROOT, "%-11s %-14s %12.6f +- %-10.6f %12.3f +- %-10.3f %14.0f %8.0f %8.0f%n",
+				algorithm, new File(filename).getName(), mean(average), deviation(average),
+				mean(throughput), deviation(throughput), allocated / calls, collections, collectionMillis);
+	}
+
+	/**
+	 * Runs the benchmarks described in the class comment.
+	 *
+	 * @param args the command-line options followed by the input files
+	 */
+	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("-child")) {
+			ThreeSumEngine.Algorithm algorithm = ThreeSumEngine.Algorithm.forFlag(args[1]);
+			for (Iteration it : run(algorithm, args[2], Integer.parseInt(args[3]),
+					Integer.parseInt(args[4]), Long.parseLong(args[5]))) {
+				System.out.println(it);
+			}
+			return;
+		}
+
+		String algorithms = "brute,parallel,twopointer,hash";
+		int forks = 2;
+		int warmup = 3;
+		int iterations = 5;
+		double seconds = 1;
+		List<String> files = new ArrayList<String>();
+		for (int arg = 0; arg < args.length; arg++) {
+			switch (args[arg]) {
+				case "-algorithms": algorithms = args[++arg]; break;
+				case "-forks":      forks = Integer.parseInt(args[++arg]); break;
+				case "-warmup":     warmup = Integer.parseInt(args[++arg]); break;
+				case "-iterations": iterations = Integer.parseInt(args[++arg]); break;
+				case "-time":       seconds = Double.parseDouble(args[++arg]); break;
+				default:
+					if (args[arg].startsWith("-")) {
+						throw new IllegalArgumentException("Unknown option " + args[arg]);
+					}
+					files.add(args[arg]);
+			}
+		}
+		long minNanos = (long) (seconds * 1e9);
+
+		System.out.printf("%-11s %-14s %25s %25s %14s %8s %8s%n", "algorithm", "input",
+				"avgt (s/op)", "thrpt (ops/s)", "alloc (B/op)", "gc.count", "gc.ms");
+		for (String flag : algorithms.split(",")) {
+			ThreeSumEngine.Algorithm algorithm = ThreeSumEngine.Algorithm.forFlag(flag);
+			for (String filename : files) {
+				List<Iteration> results = new ArrayList<Iteration>();
+				if (forks == 0) {
+					results.addAll(run(algorithm, filename, warmup, iterations, minNanos));
+				}
+				for (int f = 0; f < forks; f++) {
+					results.addAll(fork(algorithm, filename, warmup, iterations, minNanos));
+				}
+				report(algorithm.flag(), filename, results);
+			}
+		}
+	}
+}
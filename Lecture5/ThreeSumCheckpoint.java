@@ -0,0 +1,337 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/******************************************************************************
+ *  Compilation:  javac ThreeSumCheckpoint.java
+ *  Dependencies: ParallelThreeSum.java IntBinaryFile.java
+ *
+ *  Counts the triples that sum to exactly 0 with the parallel brute force of
+ *  ParallelThreeSum, saving its progress to a checkpoint file so that a run
+ *  that is killed can be resumed where it stopped.
+ *
+ *  The rows i of the outer loop are divided into a fixed number of chunks
+ *  with about the same work each. The chunks run as fork/join tasks and
+ *  finish in any order; the checkpoint records which chunks are done and
+ *  what each one counted, and is rewritten at most once per save interval
+ *  and once more at the end (and on a normal JVM shutdown, such as Ctrl-C):
+ *
+ *    # ThreeSum checkpoint
+ *    n 4000
+ *    checksum 75e072b1c43a1b52
+ *    chunks 256
+ *    done 0 6 15
+ *    done 6 11 16
+ *    ...
+ *
+ *  Each line "done lo hi count" says that rows lo..hi-1 hold count triples.
+ *  The checksum is that of IntBinaryFile, computed over the values, so a
+ *  text file and its binary conversion share a checkpoint. A checkpoint
+ *  whose size, checksum or number of chunks differs from the current run
+ *  is rejected rather than silently mixed in. The file is written to a
+ *  temporary file first and then moved over the old one, so a crash during
+ *  a save leaves the previous checkpoint intact. When every chunk has been
+ *  counted the checkpoint is deleted, so a later run on the same input
+ *  counts from scratch instead of reporting the finished result unchecked.
+ *
+ *  % java ThreeSum 8Kints.txt -checkpoint 8K.ckpt
+ *  (killed with Ctrl-C after 15 seconds)
+ *  % java ThreeSum 8Kints.txt -checkpoint 8K.ckpt
+ *  resuming 8Kints.txt: 61 of 256 chunks done
+ *  elapsed time = 37.450404993
+ *  32074
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code ThreeSumCheckpoint} class provides static methods for counting
+ *  the triples in an array of integers that sum to 0 with periodic
+ *  checkpoints, and for resuming such a count.
+ *  <p>
+ *  The arithmetic is exactly that of {@link ThreeSum#count(int[])}, so the
+ *  counts agree with it on every input.
+ */
+public class ThreeSumCheckpoint {
+
+	/**
+	 * The default number of chunks the rows are divided into.
+	 */
+	public static final int DEFAULT_CHUNKS = 256;
+
+	/**
+	 * The default time between two saves of the checkpoint, in milliseconds.
+	 */
+	public static final long DEFAULT_INTERVAL = 30000;
+
+	private static final String HEADER = "# ThreeSum checkpoint";
+
+	// Do not instantiate.
+	private ThreeSumCheckpoint() { }
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k}
+	 * such that {@code a[i] + a[j] + a[k] == 0}, resuming from the given
+	 * checkpoint if it exists and saving to it as the count proceeds.
+	 * The checkpoint is deleted once the count is complete.
+	 * Runs in the common pool, with the default number of chunks and save interval.
+	 *
+	 * @param  a the array of integers
+	 * @param  checkpoint the path of the checkpoint file
+	 * @return the number of triples that sum to 0
+	 * @throws IllegalArgumentException if the checkpoint belongs to another input
+	 *         or cannot be read or written
+	 */
+	public static long count(int[] a, Path checkpoint) {
+		return count(a, checkpoint, ForkJoinPool.commonPool(), DEFAULT_CHUNKS, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k}
+	 * such that {@code a[i] + a[j] + a[k] == 0}, resuming from the given
+	 * checkpoint if it exists and saving to it as the count proceeds.
+	 * The checkpoint is deleted once the count is complete.
+	 *
+	 * @param  a the array of integers
+	 * @param  checkpoint the path of the checkpoint file
+	 * @param  pool the pool that runs the chunks
+	 * @param  chunks the number of chunks the rows are divided into
+	 * @param  interval the minimum time between two saves, in milliseconds
+	 * @return the number of triples that sum to 0
+	 * @throws IllegalArgumentException if {@code chunks < 1}, if the checkpoint
+	 *         belongs to another input, or if it cannot be read or written
+	 */
+	public static long count(int[] a, Path checkpoint, ForkJoinPool pool, int chunks, long interval) {
+		if (chunks < 1) {
+			throw new IllegalArgumentException("The number of chunks must be positive: " + chunks);
+		}
+		Progress progress = new Progress(checkpoint, a.length, checksum(a), chunks, interval);
+		if (Files.exists(checkpoint)) {
+			progress.load();
+		}
+
+		List<ChunkTask> tasks = new ArrayList<ChunkTask>();
+		for (int p = 0; p < chunks; p++) {
+			if (!progress.isDone(p)) {
+				tasks.add(new ChunkTask(a, p, progress));
+			}
+		}
+
+		Thread hook = new Thread(progress::save);
+		Runtime.getRuntime().addShutdownHook(hook);
+		try {
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+		}
+		finally {
+			try {
+				Runtime.getRuntime().removeShutdownHook(hook);
+			}
+			catch (IllegalStateException e) {
+				// the JVM is shutting down and the hook is saving the progress
+			}
+		}
+		long total = progress.total();
+		progress.finish();
+		return total;
+	}
+
+	/**
+	 * Returns the number of chunks recorded as done in the given checkpoint,
+	 * or 0 if there is no such file.
+	 *
+	 * @param  checkpoint the path of the checkpoint file
+	 * @return the number of chunks done
+	 * @throws IllegalArgumentException if the file cannot be read
+	 */
+	public static int chunksDone(Path checkpoint) {
+		if (!Files.exists(checkpoint)) {
+			return 0;
+		}
+		int done = 0;
+		for (String line : lines(checkpoint)) {
+			if (line.startsWith("done ")) {
+				done++;
+			}
+		}
+		return done;
+	}
+
+	private static long checksum(int[] a) {
+		long checksum = 0;
+		for (int i = 0; i < a.length; i++) {
+			checksum += IntBinaryFile.checksum(i, a[i]);
+		}
+		return checksum;
+	}
+
+	private static List<String> lines(Path path) {
+		try {
+			return Files.readAllLines(path);
+		}
+		catch (IOException ioe) {
+			throw new IllegalArgumentException("Could not open " + path, ioe);
+		}
+	}
+
+	// the chunks done so far and their counts, shared by the tasks
+	private static final class Progress {
+		private final Path path;
+		private final int n;
+		private final long checksum;
+		private final int[] bounds;     // chunk p is rows bounds[p]..bounds[p+1]-1
+		private final boolean[] done;
+		private final long[] counts;
+		private final long intervalNanos;
+		private long lastSave;
+		private boolean dirty;          // true if a chunk finished since the last save
+		private boolean finished;       // true once the checkpoint has been deleted
+
+		Progress(Path path, int n, long checksum, int chunks, long interval) {
+			this.path = path;
+			this.n = n;
+			this.checksum = checksum;
+			this.bounds = ParallelThreeSum.partition(n, chunks);
+			this.done = new boolean[chunks];
+			this.counts = new long[chunks];
+			this.intervalNanos = interval * 1000000L;
+			this.lastSave = System.nanoTime();
+		}
+
+		int lo(int p) {
+			return bounds[p];
+		}
+
+		int hi(int p) {
+			return bounds[p+1];
+		}
+
+		synchronized boolean isDone(int p) {
+			return done[p];
+		}
+
+		synchronized void complete(int p, long count) {
+			done[p] = true;
+			counts[p] = count;
+			dirty = true;
+			if (System.nanoTime() - lastSave >= intervalNanos) {
+				save();
+			}
+		}
+
+		synchronized long total() {
+			long total = 0;
+			for (int p = 0; p < done.length; p++) {
+				if (!done[p]) {
+					throw new IllegalStateException("Chunk " + p + " was not counted");
+				}
+				total += counts[p];
+			}
+			return total;
+		}
+
+		// reads the chunks done from the checkpoint, which must match this run
+		synchronized void load() {
+			List<String> lines = lines(path);
+			if (lines.size() < 4 || !lines.get(0).equals(HEADER)) {
+				throw new IllegalArgumentException(path + " is not a ThreeSum checkpoint");
+			}
+			if (!lines.get(1).equals("n " + n)
+					|| !lines.get(2).equals("checksum " + Long.toHexString(checksum))
+					|| !lines.get(3).equals("chunks " + done.length)) {
+				throw new IllegalArgumentException("The checkpoint " + path + " was written for another input or number of chunks");
+			}
+			int p = 0;
+			for (String line : lines.subList(4, lines.size())) {
+				String[] fields = line.trim().split("\\s+");
+				if (!fields[0].equals("done") || fields.length != 4) {
+					throw new IllegalArgumentException("Bad line in " + path + ": " + line);
+				}
+				int lo = Integer.parseInt(fields[1]);
+				int hi = Integer.parseInt(fields[2]);
+				// the lines are in chunk order, so one pass finds every chunk
+				while (p < done.length && (bounds[p] < lo || bounds[p+1] < hi)) {
+					p++;
+				}
+				if (p == done.length || bounds[p] != lo || bounds[p+1] != hi) {
+					throw new IllegalArgumentException("No chunk " + lo + ".." + (hi-1) + " in " + path);
+				}
+				done[p] = true;
+				counts[p++] = Long.parseLong(fields[3]);
+			}
+		}
+
+		// writes the checkpoint to a temporary file and moves it over the old one
+		synchronized void save() {
+			if (finished || !dirty && Files.exists(path)) {
+				return;
+			}
+			Path absolute = path.toAbsolutePath();
+			Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+			try {
+				try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(temp))) {
+					out.println(HEADER);
+					out.println("n " + n);
+					out.println("checksum " + Long.toHexString(checksum));
+					out.println("chunks " + done.length);
+					for (int p = 0; p < done.length; p++) {
+						if (done[p]) {
+							out.println("done " + bounds[p] + " " + bounds[p+1] + " " + counts[p]);
+						}
+					}
+					if (out.checkError()) {
+						throw new IOException("Write to " + temp + " failed");
+					}
+				}
+				try {
+					Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			catch (IOException ioe) {
+				throw new IllegalArgumentException("Could not write " + path, ioe);
+			}
+			dirty = false;
+			lastSave = System.nanoTime();
+		}
+
+		// deletes the checkpoint of a complete count, and stops any later save from writing it again
+		synchronized void finish() {
+			finished = true;
+			try {
+				Files.deleteIfExists(path);
+			}
+			catch (IOException ioe) {
+				throw new IllegalArgumentException("Could not delete " + path, ioe);
+			}
+		}
+	}
+
+	// counts the rows of one chunk and records the result
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] a;
+		private final int p;
+		private final Progress progress;
+
+		ChunkTask(int[] a, int p, Progress progress) {
+			this.a = a;
+			this.p = p;
+			this.progress = progress;
+		}
+
+		@Override
+		protected void compute() {
+			progress.complete(p, ParallelThreeSum.countRows(a, progress.lo(p), progress.hi(p)));
+		}
+	}
+}
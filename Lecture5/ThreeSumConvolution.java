@@ -0,0 +1,263 @@
+/******************************************************************************
+ *  Compilation:  javac ThreeSumConvolution.java
+ *  Dependencies: none
+ *
+ *  Counts the triples that sum to exactly 0 in an array whose values lie in
+ *  a bounded range [min, max], in time proportional to U log U + n where
+ *  U = max - min + 1, independently of how many triples there are.
+ *
+ *  Shift every value by -min so the histogram h[v] of the shifted values is a
+ *  polynomial of degree U - 1. The triples summing to 0 are exactly those
+ *  whose shifted values sum to T = -3 min. With the square h*h computed by a
+ *  number-theoretic transform (exact, modulo two primes combined with the
+ *  Chinese remainder theorem), the ordered index triples (x, y, z), not
+ *  necessarily distinct, number
+ *
+ *      A = sum_v h[v] (h*h)[T - v].
+ *
+ *  Those with x = y number B = sum_v h[v] h[T - 2v] (the same for y = z and
+ *  x = z), and those with x = y = z number C = h[T/3]. By inclusion-exclusion
+ *  the index triples i < j < k number (A - 3B + 2C) / 6.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code ThreeSumConvolution} class provides static methods for counting
+ *  the triples in an array of integers that sum to 0 via a histogram
+ *  convolution. It pays off when the range of the values is small compared
+ *  to n^2, for example on the Kints files, whose values all lie in
+ *  [-1,000,000, 1,000,000].
+ *  <p>
+ *  The values must be within {@code Integer.MAX_VALUE / 3} of 0, so that no
+ *  triple overflows and the counts agree with {@link ThreeSum#count(int[])},
+ *  and there may be at most {@link #MAX_N} of them, so that every count of
+ *  pairs is below the product of the two transform primes.
+ */
+public class ThreeSumConvolution {
+
+	// primes p = c 2^k + 1 with primitive root 3; the pair counts, at most n^2, are
+	// recovered from their residues by the CRT, so P1 P2 (about 4.7e17) must exceed n^2
+	private static final int P1 = 998244353;  // 119 * 2^23 + 1
+	private static final int P2 = 469762049;  // 7 * 2^26 + 1
+	private static final int ROOT = 3;
+
+	// the transform length must divide P1 - 1, so the square has at most 2^23 coefficients
+	private static final int MAX_LENGTH = 1 << 23;
+
+	/**
+	 * The largest value range {@code max - min + 1} this class accepts.
+	 */
+	public static final int MAX_RANGE = MAX_LENGTH / 2;
+
+	/**
+	 * The largest array length this class accepts: the largest n with n^2 < P1 P2,
+	 * so that every pair count is recovered exactly.
+	 */
+	public static final int MAX_N = 684789977;
+
+	// estimated cost of one modular butterfly relative to one two-pointer step
+	private static final double BUTTERFLY_COST = 4.0;
+
+	// Do not instantiate.
+	private ThreeSumConvolution() { }
+
+	/**
+	 * Returns true if the values of {@code a} lie in a range this class
+	 * accepts and counting by convolution is expected to be faster than
+	 * the quadratic two-pointer count.
+	 *
+	 * @param  a the array of integers
+	 * @return true if {@link #count(int[])} is the faster algorithm for {@code a}
+	 */
+	public static boolean isPreferred(int[] a) {
+		if (a.length > MAX_N) {
+			return false;
+		}
+		long range = range(a);
+		if (range < 0) {
+			return false;
+		}
+		int length = transformLength(range);
+		double transforms = 4.0 * length * Integer.numberOfTrailingZeros(length) / 2 * BUTTERFLY_COST;
+		double pairs = (double) a.length * a.length / 2;
+		return transforms < pairs;
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k}
+	 * such that {@code a[i] + a[j] + a[k] == 0}.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 * @throws IllegalArgumentException if {@code max - min + 1 > MAX_RANGE},
+	 *         some value is further than {@code Integer.MAX_VALUE / 3} from 0,
+	 *         or {@code a.length > MAX_N}
+	 * @throws ArithmeticException if the intermediate counts overflow a {@code long}
+	 *         (possible only for arrays of more than about two million integers)
+	 */
+	public static long count(int[] a) {
+		if (a.length < 3) {
+			return 0;
+		}
+		if (a.length > MAX_N) {
+			throw new IllegalArgumentException("Too many values for convolution: " + a.length + " > " + MAX_N);
+		}
+		long range = range(a);
+		if (range < 0) {
+			throw new IllegalArgumentException("Values out of range for convolution");
+		}
+		int min = min(a);
+		int u = (int) range;
+		long target = -3L * min;
+		if (target < 0 || target > 3L * (u - 1)) {
+			return 0; // all values are positive, or all are negative
+		}
+
+		int[] h = new int[u];
+		for (int x : a) {
+			h[x - min]++;
+		}
+
+		int length = transformLength(range);
+		int[] square1 = square(h, length, P1);
+		int[] square2 = square(h, length, P2);
+		long p1InverseModP2 = pow(P1 % P2, P2 - 2, P2);
+
+		// A: ordered triples of indices, not necessarily distinct
+		long all = 0;
+		int t = (int) target;
+		for (int v = Math.max(0, t - (2*u - 2)); v < u && v <= t; v++) {
+			if (h[v] != 0) {
+				long pairs = crt(square1[t - v], square2[t - v], p1InverseModP2);
+				all = Math.addExact(all, Math.multiplyExact(h[v], pairs));
+			}
+		}
+
+		// B: ordered triples whose first two indices are equal
+		long doubled = 0;
+		for (int v = 0; v < u && 2*v <= t; v++) {
+			int w = t - 2*v;
+			if (w < u) {
+				doubled += (long) h[v] * h[w];
+			}
+		}
+
+		// C: triples of one and the same index
+		long tripled = (t % 3 == 0) ? h[t / 3] : 0;
+
+		return Math.subtractExact(all, 3 * doubled - 2 * tripled) / 6;
+	}
+
+	// max - min + 1 if it is at most MAX_RANGE and no value overflows a triple sum, or -1
+	private static long range(int[] a) {
+		if (a.length == 0) {
+			return 1;
+		}
+		int min = a[0], max = a[0];
+		for (int x : a) {
+			if (x < min) min = x;
+			if (x > max) max = x;
+		}
+		int bound = Integer.MAX_VALUE / 3;
+		long range = (long) max - min + 1;
+		if (min < -bound || max > bound || range > MAX_RANGE) {
+			return -1;
+		}
+		return range;
+	}
+
+	private static int min(int[] a) {
+		int min = a[0];
+		for (int x : a) {
+			if (x < min) min = x;
+		}
+		return min;
+	}
+
+	// smallest power of two that holds the 2u - 1 coefficients of h*h
+	private static int transformLength(long u) {
+		int length = 1;
+		while (length < 2*u - 1) {
+			length <<= 1;
+		}
+		return length;
+	}
+
+	// the first length coefficients of h*h modulo p
+	private static int[] square(int[] h, int length, int p) {
+		int[] f = new int[length];
+		for (int i = 0; i < h.length; i++) {
+			f[i] = h[i] % p;
+		}
+		transform(f, false, p);
+		for (int i = 0; i < length; i++) {
+			f[i] = (int) ((long) f[i] * f[i] % p);
+		}
+		transform(f, true, p);
+		return f;
+	}
+
+	// in-place iterative number-theoretic transform modulo p; f.length is a power of two
+	private static void transform(int[] f, boolean inverse, int p) {
+		int n = f.length;
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				int temp = f[i];
+				f[i] = f[j];
+				f[j] = temp;
+			}
+		}
+		int[] roots = new int[n / 2];
+		for (int len = 2; len <= n; len <<= 1) {
+			int half = len / 2;
+			long w = pow(ROOT, (p - 1) / len, p);
+			if (inverse) {
+				w = pow(w, p - 2, p);
+			}
+			roots[0] = 1;
+			for (int k = 1; k < half; k++) {
+				roots[k] = (int) (roots[k-1] * w % p);
+			}
+			for (int start = 0; start < n; start += len) {
+				for (int k = 0; k < half; k++) {
+					int x = f[start + k];
+					int y = (int) ((long) f[start + k + half] * roots[k] % p);
+					int sum = x + y;
+					f[start + k] = sum >= p ? sum - p : sum;
+					int difference = x - y;
+					f[start + k + half] = difference < 0 ? difference + p : difference;
+				}
+			}
+		}
+		if (inverse) {
+			long nInverse = pow(n, p - 2, p);
+			for (int i = 0; i < n; i++) {
+				f[i] = (int) (f[i] * nInverse % p);
+			}
+		}
+	}
+
+	// the unique x in [0, P1 P2) with x = r1 (mod P1) and x = r2 (mod P2)
+	private static long crt(int r1, int r2, long p1InverseModP2) {
+		long k = ((r2 - r1) % P2 + P2) % P2 * p1InverseModP2 % P2;
+		return r1 + k * P1;
+	}
+
+	private static long pow(long base, long exponent, int p) {
+		long result = 1;
+		base %= p;
+		while (exponent > 0) {
+			if ((exponent & 1) == 1) {
+				result = result * base % p;
+			}
+			base = base * base % p;
+			exponent >>= 1;
+		}
+		return result;
+	}
+}
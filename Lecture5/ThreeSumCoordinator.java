@@ -0,0 +1,341 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/******************************************************************************
+ *  Compilation:  javac ThreeSumCoordinator.java
+ *  Execution:    java ThreeSumCoordinator input.bin [-workers w] [-shards s]
+ *                                         [-retries r] [-timeout t] [-numa]
+ *  Dependencies: IntBinaryFile.java ParallelThreeSum.java Stopwatch.java
+ *
+ *  Counts the triples that sum to exactly 0 in a binary integer file with
+ *  the brute force of ParallelThreeSum, spread over separate worker JVMs on
+ *  this machine, so that no single heap or garbage collector has to hold
+ *  the whole job.
+ *
+ *  The rows i of the outer loop are divided into s shards with about the
+ *  same work each (default 4 per worker). Up to w workers run at a time
+ *  (default one per processor); each is started with ProcessBuilder with
+ *  the JVM options and class path of the coordinator, maps the input file,
+ *  counts the rows of its shard, and reports on standard output
+ *
+ *    SHARD lo hi count
+ *
+ *  The input is mapped, not parsed, and a worker counts straight from the
+ *  mapping without copying it to its heap, so the workers share the pages
+ *  of the file in the operating system's page cache. A worker that exits
+ *  with an error or without a SHARD line for its shard is retried up to r
+ *  times (default 2) before the job fails. There is no time limit unless
+ *  -timeout t is given; then a worker still running after t seconds is
+ *  killed and retried too. Pick t from the size of the shards: the brute
+ *  force takes about n^3 / (6s) steps per shard. The partial counts are
+ *  added up as they arrive.
+ *
+ *  With -numa, worker k is started under numactl, bound to the CPUs and
+ *  memory of NUMA node k mod m, where m is the number of nodes in
+ *  /sys/devices/system/node.
+ *
+ *  % java IntBinaryFile 4Kints.txt 4Kints.bin
+ *  % java ThreeSumCoordinator 4Kints.bin -workers 2 -shards 8
+ *  8 shards on 2 workers
+ *  elapsed time = 14.695812852
+ *  4039
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code ThreeSumCoordinator} class provides a client that counts the
+ *  triples in a binary integer file that sum to 0 with a pool of local
+ *  worker processes.
+ *  <p>
+ *  The arithmetic is exactly that of {@link ThreeSum#count(int[])}, so the
+ *  counts agree with it on every input.
+ */
+public class ThreeSumCoordinator {
+
+	// a worker prints one line with this prefix for its shard
+	private static final String SHARD = "SHARD";
+
+	// the directory that lists the NUMA nodes on Linux
+	private static final Path NUMA_NODES = Paths.get("/sys/devices/system/node");
+
+	// Do not instantiate.
+	private ThreeSumCoordinator() { }
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k} such that
+	 * {@code a[i] + a[j] + a[k] == 0} in the given binary integer file, counted
+	 * by worker processes, each of which may run for as long as it takes.
+	 *
+	 * @param  input the binary integer file
+	 * @param  workers the number of worker processes that run at a time
+	 * @param  shards the number of shards the rows are divided into
+	 * @param  retries the number of times a failed shard is started again
+	 * @param  numa true to bind each worker to a NUMA node with numactl
+	 * @return the number of triples that sum to 0
+	 * @throws IllegalArgumentException if the file is not a binary integer file,
+	 *         if {@code workers} or {@code shards} is not positive, or if
+	 *         {@code numa} is true and numactl is not installed
+	 * @throws IllegalStateException if a shard still fails after the retries
+	 */
+	public static long count(Path input, int workers, int shards, int retries, boolean numa) {
+		return count(input, workers, shards, retries, 0, numa);
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k} such that
+	 * {@code a[i] + a[j] + a[k] == 0} in the given binary integer file, counted
+	 * by worker processes.
+	 *
+	 * @param  input the binary integer file
+	 * @param  workers the number of worker processes that run at a time
+	 * @param  shards the number of shards the rows are divided into
+	 * @param  retries the number of times a failed shard is started again
+	 * @param  timeout the time a worker may run before it is killed and its
+	 *         shard counts as failed, in seconds, or 0 for no limit
+	 * @param  numa true to bind each worker to a NUMA node with numactl
+	 * @return the number of triples that sum to 0
+	 * @throws IllegalArgumentException if the file is not a binary integer file,
+	 *         if {@code workers} or {@code shards} is not positive, if {@code timeout}
+	 *         is negative, or if {@code numa} is true and numactl is not installed
+	 * @throws IllegalStateException if a shard still fails after the retries
+	 */
+	public static long count(Path input, int workers, int shards, int retries, long timeout, boolean numa) {
+		if (workers < 1 || shards < 1) {
+			throw new IllegalArgumentException("The numbers of workers and shards must be positive: " + workers + ", " + shards);
+		}
+		if (timeout < 0) {
+			throw new IllegalArgumentException("The timeout must not be negative: " + timeout);
+		}
+		int n = (int) IntBinaryFile.readHeader(input).count();
+		int[] bounds = ParallelThreeSum.partition(n, shards);
+		if (numa && !onPath("numactl")) {
+			throw new IllegalArgumentException("-numa needs numactl, which is not on the PATH");
+		}
+		int nodes = numa ? numaNodes() : 0;
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		Set<Process> running = Collections.synchronizedSet(new HashSet<Process>());
+		try {
+			List<Future<Long>> results = new ArrayList<Future<Long>>();
+			for (int s = 0; s < shards; s++) {
+				final int lo = bounds[s], hi = bounds[s+1];
+				final int node = numa ? s % nodes : -1;
+				Callable<Long> shard = () -> runShard(input, lo, hi, retries, timeout, node, running);
+				results.add(executor.submit(shard));
+			}
+			long count = 0;
+			for (Future<Long> result : results) {
+				count += result.get();
+			}
+			return count;
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Shard failed", e.getCause());
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the workers", ie);
+		}
+		finally {
+			// after a failure, stop the workers of the other shards too
+			executor.shutdownNow();
+			synchronized (running) {
+				for (Process process : running) {
+					process.destroyForcibly();
+				}
+			}
+		}
+	}
+
+	// runs one worker for rows lo..hi-1, starting it again after a failure
+	private static long runShard(Path input, int lo, int hi, int retries, long timeout, int node,
+			Set<Process> running) throws InterruptedException {
+		if (lo == hi) {
+			return 0;
+		}
+		for (int attempt = 0; ; attempt++) {
+			String failure;
+			try {
+				Long count = runWorker(input, lo, hi, timeout, node, running);
+				if (count != null) {
+					return count;
+				}
+				failure = "reported no count";
+			}
+			catch (IOException ioe) {
+				failure = ioe.getMessage();
+			}
+			if (attempt == retries) {
+				throw new IllegalStateException("Shard " + lo + ".." + (hi-1) + " failed "
+						+ (retries + 1) + " times; last: " + failure);
+			}
+			System.err.println("shard " + lo + ".." + (hi-1) + " " + failure + ", retrying");
+		}
+	}
+
+	// starts a worker for rows lo..hi-1 and returns its count, or null if it reported none;
+	// the worker's output is read on a thread of its own, so that a worker that hangs
+	// without closing its output cannot block the coordinator past the timeout
+	private static Long runWorker(Path input, int lo, int hi, long timeout, int node, Set<Process> running)
+			throws IOException, InterruptedException {
+		List<String> command = new ArrayList<String>();
+		if (node >= 0) {
+			command.add("numactl");
+			command.add("--cpunodebind=" + node);
+			command.add("--membind=" + node);
+		}
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ThreeSumCoordinator.class.getName());
+		command.add("-worker");
+		command.add(input.toString());
+		command.add(Integer.toString(lo));
+		command.add(Integer.toString(hi));
+
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		running.add(process);
+		FutureTask<Long> report = new FutureTask<Long>(() -> readCount(process, lo, hi));
+		Thread reader = new Thread(report, "shard " + lo + ".." + (hi-1));
+		reader.setDaemon(true);
+		reader.start();
+		try {
+			if (timeout == 0) {
+				process.waitFor();
+			}
+			else if (!process.waitFor(timeout, TimeUnit.SECONDS)) {
+				throw new IOException("timed out after " + timeout + " seconds");
+			}
+		}
+		finally {
+			process.destroyForcibly();
+			running.remove(process);
+		}
+		if (process.exitValue() != 0) {
+			throw new IOException("exited with code " + process.exitValue());
+		}
+		try {
+			return report.get();
+		}
+		catch (ExecutionException e) {
+			throw new IOException("could not read its output: " + e.getCause().getMessage(), e.getCause());
+		}
+	}
+
+	// reads the output of a worker to the end and returns the count on its SHARD line
+	// for rows lo..hi-1, or null if there is no such line
+	private static Long readCount(Process process, int lo, int hi) throws IOException {
+		Long count = null;
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length == 4 && fields[0].equals(SHARD) && fields[1].equals(Integer.toString(lo))
+						&& fields[2].equals(Integer.toString(hi))) {
+					try {
+						count = Long.parseLong(fields[3]);
+					}
+					catch (NumberFormatException e) {
+						count = null;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	// true if an executable with the given name is in a directory of the PATH
+	private static boolean onPath(String program) {
+		String path = System.getenv("PATH");
+		if (path == null) {
+			return false;
+		}
+		for (String dir : path.split(File.pathSeparator)) {
+			if (Files.isExecutable(Paths.get(dir, program))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// the number of NUMA nodes, or 1 if the system does not list them
+	private static int numaNodes() {
+		int nodes = 0;
+		File[] entries = NUMA_NODES.toFile().listFiles();
+		if (entries != null) {
+			for (File entry : entries) {
+				if (entry.getName().matches("node\\d+")) {
+					nodes++;
+				}
+			}
+		}
+		return Math.max(1, nodes);
+	}
+
+	// the worker: counts rows lo..hi-1 over the mapped input and prints a SHARD line
+	private static void worker(Path input, int lo, int hi) {
+		IntBuffer values = IntBinaryFile.map(input);
+		System.out.println(SHARD + " " + lo + " " + hi + " " + ParallelThreeSum.countRows(values, lo, hi));
+	}
+
+	/**
+	 * Counts the triples of a binary integer file with worker processes as
+	 * described in the class comment, and prints the count and the time.
+	 *
+	 * @param args the input file followed by the options
+	 */
+	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("-worker")) {
+			worker(Paths.get(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+			return;
+		}
+		Path input = Paths.get(args[0]);
+		if (!Files.isReadable(input) || !IntBinaryFile.isBinary(input)) {
+			throw new IllegalArgumentException("Could not open " + input
+					+ " as a binary integer file; convert it with IntBinaryFile first");
+		}
+		int workers = Runtime.getRuntime().availableProcessors();
+		int shards = 0;
+		int retries = 2;
+		long timeout = 0;
+		boolean numa = false;
+		for (int arg = 1; arg < args.length; arg++) {
+			switch (args[arg]) {
+				case "-workers": workers = Integer.parseInt(args[++arg]); break;
+				case "-shards":  shards = Integer.parseInt(args[++arg]); break;
+				case "-retries": retries = Integer.parseInt(args[++arg]); break;
+				case "-timeout": timeout = Long.parseLong(args[++arg]); break;
+				case "-numa":    numa = true; break;
+				default: throw new IllegalArgumentException("Unknown option " + args[arg]);
+			}
+		}
+		if (shards == 0) {
+			shards = 4 * workers;
+		}
+		Stopwatch timer = new Stopwatch();
+		long count = count(input, workers, shards, retries, timeout, numa);
+		System.out.println(shards + " shards on " + workers + " workers");
+		System.out.println("elapsed time = " + timer.elapsedTime());
+		System.out.println(count);
+	}
+}
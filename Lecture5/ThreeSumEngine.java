@@ -0,0 +1,405 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/******************************************************************************
+ *  Compilation:  javac ThreeSumEngine.java
+ *  Dependencies: ThreeSum.java LongCountMap.java ParallelThreeSum.java
+ *                ThreeSumConvolution.java ThreeSumTiled.java
+ *                ThreeSumVector.java (optional)
+ *
+ *  Faster algorithms for counting the triples that sum to exactly 0,
+ *  plus a selector that picks one of them based on the size and the
+ *  value range of the input.
+ *
+ *    sort + binary search   ~ n^2 log n
+ *    sort + two pointers    ~ n^2
+ *    hash table lookups     ~ n^2 (expected)
+ *    distinct values        ~ n log n + d^2, for d distinct values
+ *    parallel brute force   ~ n^3 / p on p cores
+ *    SIMD brute force       ~ n^3 / lanes
+ *    tiled brute force      ~ n^3, reordered loops
+ *    histogram convolution  ~ U log U, for values in a range of size U
+ *
+ *  All of them count index triples (i, j, k) with i < j < k, so repeated
+ *  values are counted exactly as the brute-force ThreeSum.count does.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code ThreeSumEngine} class provides static methods for counting
+ *  the number of triples in an array of integers that sum to 0, using
+ *  algorithms that are faster than the single-threaded triply nested loop
+ *  in {@link ThreeSum#count(int[])}.
+ *  <p>
+ *  None of the methods modify the argument array. The counts are returned
+ *  as {@code long} since the number of triples can exceed {@code Integer.MAX_VALUE}.
+ *  The sorting-based methods compute sums in {@code long} arithmetic, so like
+ *  {@code ThreeSum} they assume that no triple overflows an {@code int};
+ *  the hash-based method reproduces the brute-force {@code int} arithmetic exactly.
+ */
+public class ThreeSumEngine {
+
+	// inputs with at most this many elements are counted by brute force
+	private static final int BRUTE_FORCE_CUTOFF = 64;
+
+	// inputs with at most n / DISTINCT_RATIO distinct values are counted over the distinct values;
+	// a hash lookup costs a few steps of the two-pointer walk, so d^2 must be well below n^2
+	private static final int DISTINCT_RATIO = 4;
+
+	// Do not instantiate.
+	private ThreeSumEngine() { }
+
+	/**
+	 * The counting algorithms known to the engine.
+	 */
+	public enum Algorithm {
+		BRUTE_FORCE("brute") {
+			long count(int[] a) { return ThreeSum.count(a); }
+		},
+		BINARY_SEARCH("binary") {
+			long count(int[] a) { return countBinarySearch(a); }
+		},
+		TWO_POINTER("twopointer") {
+			long count(int[] a) { return countTwoPointer(a); }
+		},
+		HASH("hash") {
+			long count(int[] a) { return countHash(a); }
+		},
+		DISTINCT("distinct") {
+			long count(int[] a) { return countDistinct(a); }
+		},
+		PARALLEL("parallel") {
+			long count(int[] a) { return ParallelThreeSum.count(a); }
+		},
+		VECTOR("vector") {
+			long count(int[] a) { return countVector(a); }
+		},
+		TILED("tiled") {
+			long count(int[] a) { return ThreeSumTiled.count(a); }
+		},
+		CONVOLUTION("fft") {
+			long count(int[] a) { return ThreeSumConvolution.count(a); }
+		},
+		AUTO("auto") {
+			long count(int[] a) { return select(a).count(a); }
+		};
+
+		private final String flag;
+
+		Algorithm(String flag) {
+			this.flag = flag;
+		}
+
+		abstract long count(int[] a);
+
+		/**
+		 * Returns the name used to select this algorithm on the command line.
+		 *
+		 * @return the command-line name of this algorithm
+		 */
+		public String flag() {
+			return flag;
+		}
+
+		/**
+		 * Returns the algorithm with the given command-line name.
+		 *
+		 * @param flag the command-line name of the algorithm
+		 * @return the algorithm with the given command-line name
+		 * @throws IllegalArgumentException if there is no such algorithm
+		 */
+		public static Algorithm forFlag(String flag) {
+			for (Algorithm algorithm : values()) {
+				if (algorithm.flag.equalsIgnoreCase(flag)) {
+					return algorithm;
+				}
+			}
+			throw new IllegalArgumentException("Unknown algorithm " + flag);
+		}
+	}
+
+	/**
+	 * Returns the algorithm that {@link Algorithm#AUTO} uses for the given array.
+	 *
+	 * @param  a the array of integers
+	 * @return the algorithm best suited to {@code a}
+	 */
+	public static Algorithm select(int[] a) {
+		if (a.length <= BRUTE_FORCE_CUTOFF) {
+			return Algorithm.BRUTE_FORCE;
+		}
+		if (ThreeSumConvolution.isPreferred(a)) {
+			return Algorithm.CONVOLUTION;
+		}
+		if (distinctValues(a) <= a.length / DISTINCT_RATIO) {
+			return Algorithm.DISTINCT;
+		}
+		return Algorithm.TWO_POINTER;
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k}
+	 * such that {@code a[i] + a[j] + a[k] == 0}, choosing the algorithm
+	 * based on the size and the value range of the input.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 */
+	public static long count(int[] a) {
+		return count(a, Algorithm.AUTO);
+	}
+
+	/**
+	 * Returns the number of triples (i, j, k) with {@code i < j < k}
+	 * such that {@code a[i] + a[j] + a[k] == 0}, using the given algorithm.
+	 *
+	 * @param  a the array of integers
+	 * @param  algorithm the algorithm to use
+	 * @return the number of triples that sum to 0
+	 */
+	public static long count(int[] a, Algorithm algorithm) {
+		return algorithm.count(a);
+	}
+
+	/**
+	 * Counts the triples that sum to 0 by sorting a copy of the array and,
+	 * for each pair, binary searching for the range of values equal to
+	 * minus their sum. Takes time proportional to n^2 log n.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 */
+	public static long countBinarySearch(int[] a) {
+		int[] b = sortedCopy(a);
+		int n = b.length;
+		long count = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i+1; j < n; j++) {
+				long target = -((long) b[i] + b[j]);
+				if (target < b[j]) {
+					break; // b[k] >= b[j] for k > j, and target only decreases with j
+				}
+				if (target > Integer.MAX_VALUE) {
+					continue;
+				}
+				int first = lowerBound(b, j+1, n, (int) target);
+				int last = lowerBound(b, first, n, (int) target + 1);
+				if (target == Integer.MAX_VALUE) {
+					last = n;
+				}
+				count += last - first;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the triples that sum to 0 by sorting a copy of the array and,
+	 * for each i, walking two pointers inwards over b[i+1..n-1].
+	 * Runs of equal values are counted in one step. Takes time proportional to n^2.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 */
+	public static long countTwoPointer(int[] a) {
+		int[] b = sortedCopy(a);
+		int n = b.length;
+		long count = 0;
+		for (int i = 0; i < n-2; i++) {
+			if (b[i] > 0) {
+				break; // all remaining values are positive
+			}
+			count += countPairs(b, i+1, n-1, -(long) b[i]);
+		}
+		return count;
+	}
+
+	// number of pairs lo <= j < k <= hi in the sorted array b with b[j] + b[k] == target
+	static long countPairs(int[] b, int lo, int hi, long target) {
+		long count = 0;
+		while (lo < hi) {
+			long sum = (long) b[lo] + b[hi];
+			if (sum < target) {
+				lo++;
+			} else if (sum > target) {
+				hi--;
+			} else if (b[lo] == b[hi]) {
+				// every pair in b[lo..hi] matches
+				long m = hi - lo + 1;
+				count += m * (m-1) / 2;
+				break;
+			} else {
+				int left = lo;
+				while (b[lo] == b[left]) {
+					lo++;
+				}
+				int right = hi;
+				while (b[hi] == b[right]) {
+					hi--;
+				}
+				count += (long) (lo - left) * (right - hi);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the triples that sum to 0 with a hash table of the values to
+	 * the right of the middle index. Does not sort the array, and reproduces
+	 * the {@code int} arithmetic of {@link ThreeSum#count(int[])} exactly,
+	 * including overflow. Takes expected time proportional to n^2.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 */
+	public static long countHash(int[] a) {
+		int n = a.length;
+		LongCountMap right = new LongCountMap(n);
+		long count = 0;
+		// invariant: right holds a[j+1..n-1]
+		for (int j = n-1; j > 0; j--) {
+			int aj = a[j];
+			for (int i = 0; i < j; i++) {
+				count += right.get(-(a[i] + aj));
+			}
+			right.increment(aj);
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the triples that sum to 0 over the distinct values of the array.
+	 * A sorted copy is compressed into its d distinct values u[0..d-1] with
+	 * their multiplicities c[0..d-1], and for each pair x <= y the third value
+	 * -(u[x] + u[y]) is looked up in a hash table. A triple of positions
+	 * x <= y <= z stands for c[x] c[y] c[z] triples of indices if the positions
+	 * differ, (c[x] choose 2) c[z] or c[x] (c[y] choose 2) if two are equal,
+	 * and (c[x] choose 3) if all three are. Like {@link #countHash(int[])}, it
+	 * reproduces the {@code int} arithmetic of {@link ThreeSum#count(int[])}
+	 * exactly, including overflow. Takes time proportional to n log n + d^2.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 */
+	public static long countDistinct(int[] a) {
+		int[] b = sortedCopy(a);
+		int[] u = new int[b.length];
+		long[] c = new long[b.length];
+		int d = 0;
+		for (int i = 0; i < b.length; i++) {
+			if (d > 0 && u[d-1] == b[i]) {
+				c[d-1]++;
+			} else {
+				u[d] = b[i];
+				c[d++] = 1;
+			}
+		}
+
+		// position[value] is 1 + the position of value in u, or 0 if it is not there
+		LongCountMap position = new LongCountMap(d);
+		for (int x = 0; x < d; x++) {
+			position.add(u[x], x + 1);
+		}
+
+		long count = 0;
+		for (int x = 0; x < d; x++) {
+			for (int y = x; y < d; y++) {
+				int z = (int) position.get(-(u[x] + u[y])) - 1;
+				if (z < y) {
+					continue; // no such value, or the triple was counted as (x, z, y)
+				}
+				if (x < y && y < z) {
+					count += c[x] * c[y] * c[z];
+				} else if (x < y) {
+					count += c[x] * (c[y] * (c[y]-1) / 2);
+				} else if (y < z) {
+					count += c[x] * (c[x]-1) / 2 * c[z];
+				} else {
+					count += c[x] * (c[x]-1) * (c[x]-2) / 6;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the triples that sum to 0 with the Vector API kernel of
+	 * {@link ThreeSumVector} if the {@code jdk.incubator.vector} module is
+	 * present, and with the scalar triply nested loop otherwise.
+	 *
+	 * @param  a the array of integers
+	 * @return the number of triples that sum to 0
+	 */
+	public static long countVector(int[] a) {
+		MethodHandle kernel = VectorKernel.COUNT;
+		if (kernel == null) {
+			return ParallelThreeSum.countRows(a, 0, a.length);
+		}
+		try {
+			return (long) kernel.invokeExact(a);
+		}
+		catch (Throwable t) {
+			throw new IllegalStateException("Vector kernel failed", t);
+		}
+	}
+
+	/**
+	 * Returns true if {@link #countVector(int[])} runs the Vector API kernel.
+	 *
+	 * @return true if the Vector API kernel is available
+	 */
+	public static boolean isVectorAvailable() {
+		return VectorKernel.COUNT != null;
+	}
+
+	// ThreeSumVector.count, looked up on first use so that this class loads without the incubator module
+	private static class VectorKernel {
+		static final MethodHandle COUNT = lookup();
+
+		private static MethodHandle lookup() {
+			if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+				return null;
+			}
+			try {
+				return MethodHandles.lookup().findStatic(Class.forName("ThreeSumVector"), "count",
+						MethodType.methodType(long.class, int[].class));
+			}
+			catch (ReflectiveOperationException | LinkageError e) {
+				return null;
+			}
+		}
+	}
+
+	// number of distinct values in a
+	private static int distinctValues(int[] a) {
+		int[] b = sortedCopy(a);
+		int d = 0;
+		for (int i = 0; i < b.length; i++) {
+			if (i == 0 || b[i] != b[i-1]) {
+				d++;
+			}
+		}
+		return d;
+	}
+
+	static int[] sortedCopy(int[] a) {
+		int[] b = a.clone();
+		Arrays.sort(b);
+		return b;
+	}
+
+	// first index in b[lo..hi-1] with b[index] >= key, or hi if there is none
+	private static int lowerBound(int[] b, int lo, int hi, int key) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (b[mid] < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+}
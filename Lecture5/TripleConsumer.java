@@ -0,0 +1,27 @@
+/******************************************************************************
+ *  Compilation:  javac TripleConsumer.java
+ *  Dependencies: none
+ *
+ *  A callback for the triples of integers found by the ThreeSum clients,
+ *  passed as three ints so that reporting a triple never allocates.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code TripleConsumer} interface represents an operation that accepts
+ *  a triple of integers, the primitive counterpart of a consumer of
+ *  {@code int[3]} arrays. See {@link TextTripleSink} and
+ *  {@link BinaryTripleSink} for sinks that write the triples out.
+ */
+@FunctionalInterface
+public interface TripleConsumer {
+
+	/**
+	 * Performs this operation on the given triple.
+	 *
+	 * @param a the first value
+	 * @param b the second value
+	 * @param c the third value
+	 */
+	void accept(int a, int b, int c);
+}